@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dentrassi.crypto.pem.AbstractPemKeyStore.Entry;
+import de.dentrassi.crypto.pem.PemUtils;
+
+/**
+ * Loading a {@code PEMCFG} configuration with many sources.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigurationBenchmark {
+
+    @Param({ "2", "20", "200" })
+    public int sources;
+
+    private final List<Path> files = new ArrayList<>();
+
+    private Properties configuration;
+
+    @Setup
+    public void setup() throws Exception {
+        this.configuration = new Properties();
+
+        // one key, and the certificate chain split up into many files
+
+        final Path key = Files.createTempFile("key-", ".pem");
+        Files.write(key, Resources.read("tls.key"));
+        this.files.add(key);
+        this.configuration.setProperty("source.key", key.toString());
+
+        for (int i = 1; i < this.sources; i++) {
+            final Path cert = Files.createTempFile("cert-", ".pem");
+            Files.write(cert, Resources.read(i == 1 ? "test1.crt" : "ca.crt"));
+            this.files.add(cert);
+            this.configuration.setProperty(String.format("source.cert.%05d", i), cert.toString());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.files.forEach(Resources::delete);
+        this.files.clear();
+    }
+
+    @Benchmark
+    public Map<String, Entry> loadFromConfiguration() throws Exception {
+        return PemUtils.loadFromConfiguration(this.configuration);
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem.benchmarks;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dentrassi.crypto.pem.AbstractPemKeyStore.Entry;
+import de.dentrassi.crypto.pem.PemLoadParameter;
+import de.dentrassi.crypto.pem.PemUtils;
+
+/**
+ * Loading CA bundles of different sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+
+    @Param({ "10", "1000", "20000", "200000" })
+    public int certificates;
+
+    private Path bundle;
+
+    @Setup
+    public void setup() throws Exception {
+        this.bundle = Files.createTempFile("bundle-", ".pem");
+        Resources.writeBundle(this.bundle, this.certificates);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Resources.delete(this.bundle);
+    }
+
+    @Benchmark
+    public Map<String, Entry> stream() throws Exception {
+        try (InputStream in = Files.newInputStream(this.bundle)) {
+            return PemUtils.loadFrom(in, false);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Entry> path() throws Exception {
+        return PemUtils.loadFrom(this.bundle, false);
+    }
+
+    @Benchmark
+    public Map<String, Entry> parallel() throws Exception {
+        return PemUtils.loadFrom(this.bundle, false, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public Map<String, Entry> lazy() throws Exception {
+        return PemUtils.loadFrom(new PemLoadParameter(this.bundle).withLazyDecoding(true), false);
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dentrassi.crypto.pem.PemKeyStoreProvider;
+import de.dentrassi.crypto.pem.PemLoadParameter;
+
+/**
+ * Looking up entries of a loaded key store, from multiple threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+    @Param({ "PEMCA", "PEMCA.MOD" })
+    public String type;
+
+    @Param({ "1000" })
+    public int certificates;
+
+    private Path bundle;
+
+    private KeyStore caStore;
+    private KeyStore keyStore;
+
+    private String[] aliases;
+    private Certificate[] candidates;
+
+    @Setup
+    public void setup() throws Exception {
+        this.bundle = Files.createTempFile("bundle-", ".pem");
+        Resources.writeBundle(this.bundle, this.certificates);
+
+        this.caStore = KeyStore.getInstance(this.type, new PemKeyStoreProvider());
+        this.caStore.load(new PemLoadParameter(this.bundle));
+
+        final Path keyFile = Files.createTempFile("key-", ".pem");
+        try {
+            Files.write(keyFile, Resources.read("privkey1.pem"));
+            this.keyStore = KeyStore.getInstance("PEM", new PemKeyStoreProvider());
+            this.keyStore.load(new PemLoadParameter(keyFile));
+        } finally {
+            Resources.delete(keyFile);
+        }
+
+        this.aliases = new String[this.certificates];
+        this.candidates = new Certificate[this.certificates];
+        for (int i = 0; i < this.certificates; i++) {
+            this.aliases[i] = "pem-" + i;
+            this.candidates[i] = this.caStore.getCertificate(this.aliases[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Resources.delete(this.bundle);
+    }
+
+    private int next() {
+        return ThreadLocalRandom.current().nextInt(this.certificates);
+    }
+
+    @Benchmark
+    public Certificate getCertificate() throws Exception {
+        return this.caStore.getCertificate(this.aliases[next()]);
+    }
+
+    @Benchmark
+    public Certificate[] getCertificateChain() throws Exception {
+        return this.caStore.getCertificateChain(this.aliases[next()]);
+    }
+
+    @Benchmark
+    public boolean isCertificateEntry() throws Exception {
+        return this.caStore.isCertificateEntry(this.aliases[next()]);
+    }
+
+    @Benchmark
+    public String getCertificateAlias() throws Exception {
+        return this.caStore.getCertificateAlias(this.candidates[next()]);
+    }
+
+    @Benchmark
+    public Key getKey() throws Exception {
+        return this.keyStore.getKey("pem", null);
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.dentrassi.crypto.pem.PemReader;
+
+/**
+ * Reading a single PEM object, by type of object.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PemReaderBenchmark {
+
+    @Param({
+            "privkey1.pem", // RSA, PKCS#1
+            "ec-private-key.pem", // EC, PKCS#1
+            "dsa-private-key.pem", // DSA, PKCS#1
+            "private-key.pem", // RSA, PKCS#8
+            "test1.crt", // certificate
+    })
+    public String resource;
+
+    private byte[] content;
+
+    @Setup
+    public void setup() {
+        this.content = Resources.read(this.resource);
+    }
+
+    @Benchmark
+    public Object readObject() throws Exception {
+        try (PemReader reader = new PemReader(new ByteArrayInputStream(this.content))) {
+            return reader.readObject();
+        }
+    }
+
+}
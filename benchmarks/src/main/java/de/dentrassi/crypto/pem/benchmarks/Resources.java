@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+/**
+ * Access to the test material, shared by all benchmarks.
+ */
+final class Resources {
+
+    private Resources() {
+    }
+
+    /**
+     * Read a resource of the key store tests.
+     */
+    static byte[] read(final String name) {
+        try (InputStream in = Resources.class.getResourceAsStream("/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Missing resource: " + name);
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int len;
+            while ((len = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, len);
+            }
+            return out.toByteArray();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write a CA bundle with the requested number of distinct certificates.
+     * <p>
+     * The certificates are derived from the test certificates, by replacing the lower bytes of their serial number
+     * with a counter. Their signatures are no longer valid, but they still can be decoded, and each of them is
+     * different, so that decoding can't be skipped by sharing equal certificates.
+     * </p>
+     */
+    static void writeBundle(final Path file, final int certificates) throws IOException {
+        final byte[][] templates = { der("test1.crt"), der("test2.crt"), der("intermediate.crt"), der("ca.crt") };
+        final Base64.Encoder encoder = Base64.getMimeEncoder(64, new byte[] { '\n' });
+
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < certificates; i++) {
+                final byte[] template = templates[i % templates.length];
+                final byte[] der = template.clone();
+                setSerial(der, i / templates.length);
+
+                out.write("-----BEGIN CERTIFICATE-----\n".getBytes(StandardCharsets.US_ASCII));
+                out.write(encoder.encode(der));
+                out.write("\n-----END CERTIFICATE-----\n".getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+    }
+
+    /**
+     * Read the DER encoded content of a single PEM encoded certificate.
+     */
+    private static byte[] der(final String name) {
+        final String pem = new String(read(name), StandardCharsets.US_ASCII);
+        final int start = pem.indexOf('\n', pem.indexOf("-----BEGIN CERTIFICATE-----")) + 1;
+        final int end = pem.indexOf("-----END CERTIFICATE-----", start);
+        return Base64.getMimeDecoder().decode(pem.substring(start, end));
+    }
+
+    /**
+     * Replace the lower four bytes of the serial number of a DER encoded certificate.
+     */
+    private static void setSerial(final byte[] der, final int value) {
+        // Certificate ::= SEQUENCE { tbsCertificate SEQUENCE { [0] version OPTIONAL, serialNumber INTEGER, ...
+        int offset = contentOffset(der, 0);
+        offset = contentOffset(der, offset);
+        if ((der[offset] & 0xFF) == 0xA0) {
+            final int content = contentOffset(der, offset);
+            offset = content + length(der, offset);
+        }
+        if (der[offset] != 0x02) {
+            throw new IllegalArgumentException("Missing serial number");
+        }
+
+        final int length = length(der, offset);
+        if (length < 5) {
+            throw new IllegalArgumentException("Serial number too short");
+        }
+
+        final int end = contentOffset(der, offset) + length;
+        for (int i = 1; i <= 4; i++) {
+            der[end - i] = (byte) (value >>> (8 * (i - 1)));
+        }
+    }
+
+    /**
+     * Get the offset of the content of the DER element at the offset.
+     */
+    private static int contentOffset(final byte[] der, final int offset) {
+        final int first = der[offset + 1] & 0xFF;
+        return first < 0x80 ? offset + 2 : offset + 2 + (first & 0x7F);
+    }
+
+    /**
+     * Get the length of the content of the DER element at the offset.
+     */
+    private static int length(final byte[] der, final int offset) {
+        final int first = der[offset + 1] & 0xFF;
+        if (first < 0x80) {
+            return first;
+        }
+        int result = 0;
+        for (int i = 0; i < (first & 0x7F); i++) {
+            result = (result << 8) | (der[offset + 2 + i] & 0xFF);
+        }
+        return result;
+    }
+
+    /**
+     * Delete a file, which was created by a benchmark.
+     */
+    static void delete(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -12,6 +12,7 @@
 
 package de.dentrassi.crypto.pem;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.security.Key;
@@ -20,6 +21,7 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -27,9 +29,15 @@ import java.util.Objects;
  * Class that implements a few mutation methods in the keystore.<br>
  * It's abstract to allow to subclasses to choose how have to load its keys and certificates.
  * <p>
- * This is a mutable, but not peristable implementation, of a keystore. It is intended for use cases where an
- * application expects the keystore to be mutable, and so we try to give our best to fulfill this expectation. However
- * we do not implement the "store" methods.
+ * This is a mutable implementation of a keystore. It is intended for use cases where an application expects the
+ * keystore to be mutable, and so we try to give our best to fulfill this expectation. Storing the keystore writes the
+ * entries in PEM format, if the same keystore type can load them again, see {@link #engineStore(OutputStream, char[])}.
+ * </p>
+ * <p>
+ * Modifications are copy-on-write: each modification creates a new map of entries, which replaces the current one.
+ * Reading from the keystore never takes a lock, and enumerating the aliases works on the state at the time the
+ * enumeration was created. So entries can be added while the keystore is in use, e.g. by a TLS server. As each
+ * modification copies all entries, adding many entries at once should rather be done by loading the keystore.
  * </p>
  */
 public abstract class AbstractMutablePemKeyStore extends AbstractPemKeyStore {
@@ -47,7 +55,7 @@ public abstract class AbstractMutablePemKeyStore extends AbstractPemKeyStore {
         Objects.requireNonNull(key);
 
         final Entry entry = new Entry(key, chain.clone());
-        this.entries.put(alias, entry);
+        putEntry(alias, entry);
 
     }
 
@@ -68,21 +76,81 @@ public abstract class AbstractMutablePemKeyStore extends AbstractPemKeyStore {
         Objects.requireNonNull(cert);
 
         final Entry entry = new Entry(null, new Certificate[] { cert });
-        this.entries.put(alias, entry);
+        putEntry(alias, entry);
 
     }
 
     @Override
     public void engineDeleteEntry(final String alias) throws KeyStoreException {
 
-        this.entries.remove(alias);
+        removeEntry(alias);
 
     }
 
+    /**
+     * Get the aliases of the entries to store, in the order they have to be written.
+     * <p>
+     * Implementations must ensure that loading the output with the same keystore type results in the same entries,
+     * with the same aliases. The default implementation rejects storing the keystore.
+     * </p>
+     *
+     * @param entries the entries to store
+     * @return the aliases, in the order they have to be written
+     * @throws IOException if the keystore type does not support storing, or the entries cannot be stored in a way
+     *             which can be loaded again
+     */
+    protected List<String> getStoreOrder(final Map<String, Entry> entries) throws IOException {
+        throw new IOException("Unsupported operation");
+    }
+
+    /**
+     * Write all entries to the stream, in PEM format.
+     * <p>
+     * Entries are written in the order of {@link #getStoreOrder(Map)}, each starting with a line of explanatory text
+     * containing the alias, followed by the private key in PKCS#8 format, and the certificate chain. So the output for
+     * the same entries is always the same, and it can be loaded again by the same keystore type.
+     * </p>
+     * <p>
+     * Entries are encoded one by one, directly into the stream, which will be flushed, but not closed. Private keys are
+     * written unencrypted, the password is ignored.
+     * </p>
+     *
+     * @throws IOException if writing fails, a key cannot be encoded in PKCS#8 format, or the entries cannot be stored
+     *             in a way which can be loaded again, or the keystore type does not support storing
+     */
     @Override
     public void engineStore(final OutputStream stream, final char[] password)
             throws IOException, NoSuchAlgorithmException, CertificateException {
-        throw new IOException("Unsupported operation");
+
+        final Map<String, Entry> entries = this.entries;
+        final List<String> aliases = getStoreOrder(entries);
+
+        final OutputStream out = new BufferedOutputStream(stream);
+        final PemWriter writer = new PemWriter(out);
+
+        for (final String alias : aliases) {
+            final Entry entry = entries.get(alias);
+
+            writer.writeText("Alias: " + alias);
+
+            final Key key = entry.getKey();
+            if (key != null) {
+                if (!"PKCS#8".equals(key.getFormat())) {
+                    throw new IOException(
+                            String.format("Unable to store key '%s' in format: %s", alias, key.getFormat()));
+                }
+                writer.writeObject("PRIVATE KEY", key.getEncoded());
+            }
+
+            final Certificate[] chain = entry.getCertificateChain();
+            if (chain != null) {
+                for (final Certificate certificate : chain) {
+                    writer.writeObject("CERTIFICATE", certificate.getEncoded());
+                }
+            }
+        }
+
+        out.flush();
     }
 
 }
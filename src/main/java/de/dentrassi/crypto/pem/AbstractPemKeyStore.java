@@ -13,16 +13,21 @@ package de.dentrassi.crypto.pem;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.security.Key;
+import java.security.KeyStore.LoadStoreParameter;
 import java.security.KeyStoreSpi;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -31,27 +36,102 @@ import java.util.Optional;
  */
 public abstract class AbstractPemKeyStore extends KeyStoreSpi {
 
+    /**
+     * A key store entry.
+     * <p>
+     * The key and certificates of an entry can either be provided directly, or in their encoded form. Encoded content
+     * gets decoded when it is accessed for the first time. A failure to decode it at that point will be reported as
+     * {@link java.security.ProviderException}.
+     * </p>
+     */
     public static final class Entry {
 
-        private final Key key;
-        private final Certificate[] certificateChain;
+        private final Lazy<Key> key;
+        private final Lazy<Certificate[]> certificateChain;
+        private final byte[] encodedCertificate;
 
         public Entry() {
-            this(null, null);
+            this((Key) null, null);
         }
 
         public Entry(final Key key, final Certificate[] certificateChain) {
+            this(key != null ? Lazy.of(key) : null,
+                    certificateChain != null && certificateChain.length > 0 ? Lazy.of(certificateChain) : null,
+                    null);
+        }
+
+        private Entry(final Lazy<Key> key, final Lazy<Certificate[]> certificateChain,
+                final byte[] encodedCertificate) {
             this.key = key;
+            this.certificateChain = certificateChain;
+            this.encodedCertificate = encodedCertificate;
+        }
+
+        /**
+         * Create a new entry from encoded content, which will only be decoded on first access.
+         * <p>
+         * Certificates are interned with the table of the current load operation, if it requested to share
+         * certificates.
+         * </p>
+         *
+         * @param keyType the PEM type of the key, may be {@code null} if there is no key
+         * @param encodedKey the encoded key, may be {@code null} if there is no key
+         * @param encodedChain the DER encoded certificates, may be {@code null} or empty if there are no certificates
+         * @return the new entry
+         */
+        static Entry encoded(final String keyType, final byte[] encodedKey, final List<byte[]> encodedChain) {
+            return encoded(keyType, encodedKey, encodedChain, LoadMonitor.current().getInterner());
+        }
 
-            if (certificateChain != null && certificateChain.length > 0) {
-                this.certificateChain = certificateChain;
-            } else {
-                this.certificateChain = null;
+        /**
+         * Create a new entry from encoded content, which will only be decoded on first access.
+         *
+         * @param keyType the PEM type of the key, may be {@code null} if there is no key
+         * @param encodedKey the encoded key, may be {@code null} if there is no key
+         * @param encodedChain the DER encoded certificates, may be {@code null} or empty if there are no certificates
+         * @param interner the table to intern the certificates with, may be {@code null}
+         * @return the new entry
+         */
+        static Entry encoded(final String keyType, final byte[] encodedKey, final List<byte[]> encodedChain,
+                final CertificateInterner interner) {
+
+            Lazy<Key> key = null;
+            if (encodedKey != null) {
+                key = Lazy.decode(() -> PemReader.decodeKey(keyType, encodedKey));
             }
+
+            Lazy<Certificate[]> certificateChain = null;
+            byte[] encodedCertificate = null;
+            if (encodedChain != null && !encodedChain.isEmpty()) {
+                encodedCertificate = encodedChain.get(0);
+                certificateChain = Lazy.decode(() -> {
+                    final Certificate[] result = new X509Certificate[encodedChain.size()];
+                    for (int i = 0; i < result.length; i++) {
+                        result[i] = PemReader.decodeCertificate(encodedChain.get(i), interner);
+                    }
+                    return result;
+                });
+            }
+
+            return new Entry(key, certificateChain, encodedCertificate);
+        }
+
+        /**
+         * Create a new entry from values which may get decoded on first access.
+         *
+         * @param key the key, may be {@code null} if there is no key
+         * @param certificateChain the certificate chain, may be {@code null} if there are no certificates
+         * @return the new entry
+         */
+        static Entry decoding(final Lazy<Key> key, final Lazy<Certificate[]> certificateChain) {
+            return new Entry(key, certificateChain, null);
         }
 
         public Key getKey() {
-            return this.key;
+            if (this.key == null) {
+                return null;
+            }
+            return this.key.get();
         }
 
         public boolean isKey() {
@@ -62,47 +142,207 @@ public abstract class AbstractPemKeyStore extends KeyStoreSpi {
             if (this.certificateChain == null) {
                 return null;
             }
-            return this.certificateChain.clone();
+            return this.certificateChain.get().clone();
         }
 
         public Certificate getCertificate() {
             if (this.certificateChain == null) {
                 return null;
             }
-            return this.certificateChain[0];
+            return this.certificateChain.get()[0];
         }
 
         public boolean isCertificate() {
             return this.certificateChain != null;
         }
 
+        /**
+         * Get the encoded form of the first certificate, without decoding it, if possible.
+         *
+         * @return the encoded certificate, or {@code null} if the entry has no certificate
+         */
+        byte[] getEncodedCertificate() throws CertificateEncodingException {
+            if (this.encodedCertificate != null) {
+                return this.encodedCertificate;
+            }
+            final Certificate certificate = getCertificate();
+            return certificate != null ? certificate.getEncoded() : null;
+        }
+
         public Entry merge(final Entry other) {
 
             if (other == null) {
                 return this;
             }
 
-            Key key = other.key;
-            Certificate[] certificateChain = other.certificateChain;
+            Lazy<Key> key = other.key;
+            Lazy<Certificate[]> certificateChain = other.certificateChain;
+            byte[] encodedCertificate = other.encodedCertificate;
 
             if (key == null) {
                 key = this.key;
             }
             if (certificateChain == null) {
                 certificateChain = this.certificateChain;
+                encodedCertificate = this.encodedCertificate;
             }
 
-            return new Entry(key, certificateChain);
+            return new Entry(key, certificateChain, encodedCertificate);
         }
     }
 
-    protected Map<String, Entry> entries = Collections.emptyMap();
+    /**
+     * The current entries of the key store.
+     * <p>
+     * The map is never modified once it got published. Modifications create a copy, which then replaces the current
+     * map. So readers can access the entries without locking, and will always see a consistent state.
+     * </p>
+     */
+    protected volatile Map<String, Entry> entries = Collections.emptyMap();
+
+    private volatile IndexedEntries certificateIndex;
+
+    private volatile long loads;
+
+    private volatile long version;
 
     protected abstract Map<String, Entry> load(InputStream stream)
             throws IOException, NoSuchAlgorithmException, CertificateException;
 
     protected abstract Map<String, Entry> initializeEmpty();
 
+    /**
+     * Load the entries from a file.
+     * <p>
+     * The default implementation opens an input stream and delegates to {@link #load(InputStream)}. Implementations
+     * may override this, in order to access the file directly.
+     * </p>
+     */
+    protected Map<String, Entry> load(final PemLoadParameter parameter)
+            throws IOException, NoSuchAlgorithmException, CertificateException {
+        try (InputStream stream = Files.newInputStream(parameter.getPath())) {
+            return load(stream);
+        }
+    }
+
+    /**
+     * Get the number of times the key store has been loaded.
+     * <p>
+     * This allows to detect that the key store was re-initialized, as opposed to entries being replaced by
+     * {@link #setEntries(Map)}.
+     * </p>
+     */
+    long getLoads() {
+        return this.loads;
+    }
+
+    /**
+     * Get the version of the entries.
+     * <p>
+     * Loading, reloading and modifying entries increments the version. Components which only have access to the
+     * {@link java.security.KeyStore} can get it through the enumeration of the aliases, see {@link Aliases}.
+     * </p>
+     */
+    long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Replace all entries.
+     * <p>
+     * The map must not be modified after calling this method.
+     * </p>
+     */
+    protected synchronized void setEntries(final Map<String, Entry> entries) {
+        this.entries = entries;
+        this.certificateIndex = null;
+        this.version++;
+    }
+
+    /**
+     * Add or replace a single entry, keeping the certificate index up to date.
+     */
+    protected synchronized void putEntry(final String alias, final Entry entry) {
+        final Map<String, Entry> current = this.entries;
+        final Map<String, Entry> entries = new HashMap<>(current);
+        final Entry previous = entries.put(alias, entry);
+
+        final CertificateIndex index = currentIndex(current);
+        if (index != null) {
+            if (previous != null) {
+                index.removed(alias, previous);
+            }
+            index.added(alias, entry);
+        }
+
+        publish(entries, index);
+    }
+
+    /**
+     * Remove a single entry, keeping the certificate index up to date.
+     */
+    protected synchronized void removeEntry(final String alias) {
+        final Map<String, Entry> current = this.entries;
+        if (!current.containsKey(alias)) {
+            return;
+        }
+
+        final Map<String, Entry> entries = new HashMap<>(current);
+        final Entry previous = entries.remove(alias);
+
+        final CertificateIndex index = currentIndex(current);
+        if (index != null) {
+            index.removed(alias, previous);
+        }
+
+        publish(entries, index);
+    }
+
+    /**
+     * Get a modifiable copy of the index of the provided entries, if there is one.
+     */
+    private CertificateIndex currentIndex(final Map<String, Entry> entries) {
+        final IndexedEntries indexed = this.certificateIndex;
+        if (indexed == null || indexed.entries != entries) {
+            return null;
+        }
+        return indexed.index.copy();
+    }
+
+    private void publish(final Map<String, Entry> entries, final CertificateIndex index) {
+        this.entries = entries;
+        this.certificateIndex = index != null ? new IndexedEntries(entries, index) : null;
+        this.version++;
+    }
+
+    private CertificateIndex getCertificateIndex() {
+        final Map<String, Entry> entries = this.entries;
+        final IndexedEntries indexed = this.certificateIndex;
+        if (indexed != null && indexed.entries == entries) {
+            return indexed.index;
+        }
+
+        // concurrent readers may build the index at the same time, but all will get the same result
+
+        final CertificateIndex index = CertificateIndex.build(entries);
+        this.certificateIndex = new IndexedEntries(entries, index);
+        return index;
+    }
+
+    /**
+     * A certificate index, along with the entries it was built for.
+     */
+    private static final class IndexedEntries {
+
+        private final Map<String, Entry> entries;
+        private final CertificateIndex index;
+
+        IndexedEntries(final Map<String, Entry> entries, final CertificateIndex index) {
+            this.entries = entries;
+            this.index = index;
+        }
+    }
+
     protected Optional<Entry> getEntry(final String alias) {
         return Optional.ofNullable(this.entries.get(alias));
     }
@@ -156,20 +396,44 @@ public abstract class AbstractPemKeyStore extends KeyStoreSpi {
 
     @Override
     public Enumeration<String> engineAliases() {
-        final Iterator<String> keys = this.entries.keySet().iterator();
+        // read the version first, the entries can only be newer
+        final long version = this.version;
+        return new Aliases(this.entries.keySet().iterator(), version);
+    }
 
-        return new Enumeration<String>() {
+    /**
+     * The aliases of a PEM key store, along with the version of the entries they were taken from.
+     * <p>
+     * The {@link java.security.KeyStore} returns the enumeration as is. So components, which only have access to the
+     * key store, can detect modifications of the entries, without reading them.
+     * </p>
+     */
+    static final class Aliases implements Enumeration<String> {
+
+        private final Iterator<String> keys;
+        private final long version;
+
+        Aliases(final Iterator<String> keys, final long version) {
+            this.keys = keys;
+            this.version = version;
+        }
 
-            @Override
-            public String nextElement() {
-                return keys.next();
-            }
+        /**
+         * Get the version of the entries, see {@link AbstractPemKeyStore#getVersion()}.
+         */
+        long getVersion() {
+            return this.version;
+        }
 
-            @Override
-            public boolean hasMoreElements() {
-                return keys.hasNext();
-            }
-        };
+        @Override
+        public String nextElement() {
+            return this.keys.next();
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return this.keys.hasNext();
+        }
     }
 
     @Override
@@ -198,25 +462,55 @@ public abstract class AbstractPemKeyStore extends KeyStoreSpi {
             return null;
         }
 
-        for (final Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+        final Map<String, Entry> entries = this.entries;
+        if (entries instanceof PackedEntries) {
+            // packed entries can look up certificates in place, without building an index on the heap
+            return ((PackedEntries) entries).getCertificateAlias(cert);
+        }
 
-            if (cert == entry.getValue().getCertificate()) {
-                return entry.getKey();
-            }
+        return getCertificateIndex().find(cert);
+    }
 
+    @Override
+    public void engineLoad(final InputStream stream, final char[] password)
+            throws IOException, NoSuchAlgorithmException, CertificateException {
+
+        this.loads++;
+
+        if (stream == null) {
+            setEntries(initializeEmpty());
+            return;
+        }
+
+        final LoadMonitor monitor = LoadMonitor.begin(getClass().getName(), null);
+        boolean success = false;
+        try {
+            setEntries(load(stream));
+            success = true;
+        } finally {
+            monitor.end(success, this.entries.size());
         }
 
-        return null;
     }
 
     @Override
-    public void engineLoad(final InputStream stream, final char[] password)
+    public void engineLoad(final LoadStoreParameter param)
             throws IOException, NoSuchAlgorithmException, CertificateException {
 
-        if (stream != null) {
-            this.entries = load(stream);
+        this.loads++;
+
+        if (param instanceof PemLoadParameter) {
+            final PemLoadParameter parameter = (PemLoadParameter) param;
+            final LoadMonitor monitor = LoadMonitor.begin(getClass().getName(), parameter);
+            boolean success = false;
+            try {
+                setEntries(load(parameter));
+                success = true;
+            } finally {
+                monitor.end(success, this.entries.size());
+            }
         } else {
-            this.entries = initializeEmpty();
+            super.engineLoad(param);
         }
 
     }
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.ProviderException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.dentrassi.crypto.pem.AbstractPemKeyStore.Entry;
+
+/**
+ * An index of the certificate entries of a key store, used for the reverse lookup of an alias by certificate.
+ * <p>
+ * Certificates are indexed by the SHA-256 fingerprint of their encoded form. So a lookup will also find certificates
+ * which are equal, but not the same instance.
+ * </p>
+ * <p>
+ * If multiple entries have the same certificate, the alias which was indexed first is reported. The other aliases are
+ * kept as well, so that removing an entry doesn't require to re-build the index.
+ * </p>
+ * <p>
+ * Instances are not thread safe. Instances which do not get modified any more can be shared after being safely
+ * published.
+ * </p>
+ */
+final class CertificateIndex {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final Map<Fingerprint, String> aliases;
+
+    /**
+     * Further aliases of certificates which are indexed more than once, in the order they were indexed.
+     * <p>
+     * The lists are never modified, but replaced. So copies of the index can share them.
+     * </p>
+     */
+    private final Map<Fingerprint, List<String>> duplicates;
+
+    private CertificateIndex(final int size) {
+        this.aliases = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+        this.duplicates = new HashMap<>();
+    }
+
+    private CertificateIndex(final CertificateIndex other) {
+        this.aliases = new HashMap<>(other.aliases);
+        this.duplicates = new HashMap<>(other.duplicates);
+    }
+
+    /**
+     * Create a copy of this index, which can be modified independently.
+     */
+    CertificateIndex copy() {
+        return new CertificateIndex(this);
+    }
+
+    /**
+     * Build a new index for the provided entries.
+     */
+    static CertificateIndex build(final Map<String, Entry> entries) {
+        final CertificateIndex result = new CertificateIndex(entries.size());
+        return withDigest(digest -> {
+            for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+                result.add(digest, entry.getKey(), entry.getValue());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Find the alias of a certificate entry.
+     *
+     * @param cert the certificate to look for
+     * @return the alias, or {@code null} if no entry has this certificate
+     */
+    String find(final Certificate cert) {
+        try {
+            final byte[] encoded = cert.getEncoded();
+            return this.aliases.get(withDigest(digest -> Fingerprint.of(digest, encoded)));
+        } catch (final CertificateEncodingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Record an entry which was added.
+     * <p>
+     * If another entry with the same certificate is already indexed, the existing alias is kept.
+     * </p>
+     */
+    void added(final String alias, final Entry entry) {
+        withDigest(digest -> {
+            add(digest, alias, entry);
+            return null;
+        });
+    }
+
+    /**
+     * Record an entry which was removed.
+     * <p>
+     * If another entry with the same certificate is indexed, the next alias of the certificate takes over.
+     * </p>
+     */
+    void removed(final String alias, final Entry entry) {
+        final Fingerprint fingerprint = withDigest(digest -> fingerprint(digest, entry));
+        if (fingerprint == null) {
+            return;
+        }
+
+        final List<String> others = this.duplicates.get(fingerprint);
+
+        if (alias.equals(this.aliases.get(fingerprint))) {
+            if (others == null) {
+                this.aliases.remove(fingerprint);
+            } else {
+                this.aliases.put(fingerprint, others.get(0));
+                replaceDuplicates(fingerprint, others.subList(1, others.size()));
+            }
+        } else if (others != null && others.contains(alias)) {
+            final List<String> remaining = new ArrayList<>(others);
+            remaining.remove(alias);
+            replaceDuplicates(fingerprint, remaining);
+        }
+    }
+
+    private void add(final MessageDigest digest, final String alias, final Entry entry) {
+        final Fingerprint fingerprint = fingerprint(digest, entry);
+        if (fingerprint == null) {
+            return;
+        }
+
+        final String existing = this.aliases.putIfAbsent(fingerprint, alias);
+        if (existing != null && !existing.equals(alias)) {
+            final List<String> others = this.duplicates.get(fingerprint);
+            final List<String> result = new ArrayList<>(others != null ? others.size() + 1 : 1);
+            if (others != null) {
+                result.addAll(others);
+            }
+            result.add(alias);
+            replaceDuplicates(fingerprint, result);
+        }
+    }
+
+    private void replaceDuplicates(final Fingerprint fingerprint, final List<String> others) {
+        if (others.isEmpty()) {
+            this.duplicates.remove(fingerprint);
+        } else {
+            this.duplicates.put(fingerprint, Collections.unmodifiableList(new ArrayList<>(others)));
+        }
+    }
+
+    private static Fingerprint fingerprint(final MessageDigest digest, final Entry entry) {
+        if (!entry.isCertificate()) {
+            return null;
+        }
+        try {
+            return Fingerprint.of(digest, entry.getEncodedCertificate());
+        } catch (final CertificateEncodingException e) {
+            return null;
+        }
+    }
+
+    private static <T> T withDigest(final FactoryPool.Operation<MessageDigest, T, RuntimeException> operation) {
+        try {
+            return FactoryPool.MESSAGE_DIGESTS.apply(DIGEST_ALGORITHM, operation);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new ProviderException(e);
+        }
+    }
+}
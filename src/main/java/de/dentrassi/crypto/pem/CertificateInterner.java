@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.security.NoSuchAlgorithmException;
+import java.security.ProviderException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A table of decoded certificates, so that identical certificates are only decoded once.
+ * <p>
+ * Intermediate certificates often show up in the chain of many entries, and in many key stores. Certificates are
+ * looked up by the SHA-256 fingerprint of their encoded form, before decoding them. If the same certificate was
+ * already decoded, and is still in use, the existing instance is returned instead.
+ * </p>
+ * <p>
+ * Computing the fingerprint costs extra time for every certificate, so interning is only done when requested using
+ * {@link PemLoadParameter#withSharedCertificates(boolean)}, in which case the process wide {@link #shared()} table is
+ * used.
+ * </p>
+ * <p>
+ * The table only keeps weak references to the certificates, so it doesn't prevent certificates from being garbage
+ * collected once no entry refers to them any more.
+ * </p>
+ */
+final class CertificateInterner {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    @FunctionalInterface
+    interface Decoder {
+        Certificate decode() throws CertificateException;
+    }
+
+    private static final CertificateInterner SHARED = new CertificateInterner();
+
+    private final ConcurrentMap<Fingerprint, CertificateReference> certificates = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<Certificate> queue = new ReferenceQueue<>();
+
+    /**
+     * Get the process wide table.
+     */
+    static CertificateInterner shared() {
+        return SHARED;
+    }
+
+    /**
+     * Get the shared instance of a certificate, decoding it if necessary.
+     *
+     * @param content the buffer holding the encoded certificate
+     * @param length the number of valid bytes in the buffer
+     * @param decoder the decoder to use if there is no shared instance yet
+     * @return the shared certificate instance
+     */
+    Certificate intern(final byte[] content, final int length, final Decoder decoder)
+            throws CertificateException {
+
+        expunge();
+
+        final Fingerprint fingerprint = fingerprint(content, length);
+
+        final CertificateReference existing = this.certificates.get(fingerprint);
+        final Certificate cached = existing != null ? existing.get() : null;
+        if (cached != null) {
+            return cached;
+        }
+
+        final Certificate certificate = decoder.decode();
+        final CertificateReference reference = new CertificateReference(fingerprint, certificate, this.queue);
+
+        // another thread may have decoded the same certificate in the meantime, first one wins
+
+        while (true) {
+            final CertificateReference current = this.certificates.putIfAbsent(fingerprint, reference);
+            if (current == null) {
+                return certificate;
+            }
+            final Certificate other = current.get();
+            if (other != null) {
+                return other;
+            }
+            if (this.certificates.replace(fingerprint, current, reference)) {
+                return certificate;
+            }
+        }
+    }
+
+    /**
+     * Get the number of certificates in the table, including the ones which have been garbage collected, but not yet
+     * been removed.
+     */
+    int size() {
+        return this.certificates.size();
+    }
+
+    private static Fingerprint fingerprint(final byte[] content, final int length) {
+        try {
+            return FactoryPool.MESSAGE_DIGESTS.apply(DIGEST_ALGORITHM,
+                    digest -> Fingerprint.of(digest, content, length));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new ProviderException(e);
+        }
+    }
+
+    /**
+     * Remove the entries of certificates which have been garbage collected.
+     */
+    private void expunge() {
+        CertificateReference reference;
+        while ((reference = (CertificateReference) this.queue.poll()) != null) {
+            this.certificates.remove(reference.fingerprint, reference);
+        }
+    }
+
+    private static final class CertificateReference extends WeakReference<Certificate> {
+
+        private final Fingerprint fingerprint;
+
+        CertificateReference(final Fingerprint fingerprint, final Certificate certificate,
+                final ReferenceQueue<Certificate> queue) {
+            super(certificate, queue);
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.NoSuchAlgorithmException;
+import java.security.ProviderException;
+import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.dentrassi.crypto.pem.AbstractPemKeyStore.Entry;
+
+/**
+ * Loads the entries of a {@code PEMCFG} key store, and optionally reloads them when the sources change.
+ * <p>
+ * Reloading is enabled by setting the property {@code reload.period} to the number of milliseconds between checks for
+ * changes. Only sources in the file system are checked, by comparing their size and modification timestamp. Changed
+ * sources are re-parsed in the background, and the entries of the key store replaced as a whole, once loading
+ * succeeded. If loading fails, the current entries are kept, and loading will be attempted again with the next
+ * check. A failure is logged as a warning once, further failures with the same state of the sources are only logged
+ * at a fine level.
+ * </p>
+ * <p>
+ * Reloading stops when the key store is loaded again, either from a configuration without a reload period, or by
+ * initializing it empty with {@code load(null)}. Reloading is not supported by the mutable key store, as it would
+ * discard the modifications made to the key store.
+ * </p>
+ * <p>
+ * The loader keeps the entry of each source, along with a fingerprint of the source. When loading again, either by
+ * reloading or by loading the key store again, unchanged sources re-use their existing entry and only changed sources
+ * get parsed. A file source is considered unchanged when its size and modification timestamp are unchanged, or
+ * otherwise if its content has the same SHA-256 hash.
+ * </p>
+ * <p>
+ * If the property {@code snapshot} is set, a pre-parsed snapshot of the entries will be kept in the referenced file,
+ * see {@link Snapshot}.
+ * </p>
+ */
+final class ConfigurationLoader {
+
+    private static final Logger logger = Logger.getLogger(ConfigurationLoader.class.getName());
+
+    static final String RELOAD_PERIOD = "reload.period";
+    static final String SNAPSHOT = "snapshot";
+
+    private static ScheduledThreadPoolExecutor scheduler;
+
+    private final AbstractPemKeyStore store;
+
+    private ScheduledFuture<?> reloadTask;
+
+    private Properties configuration;
+    private Map<Path, FileStamp> stamps;
+    private Map<Path, FileStamp> failedStamps;
+    private long loads;
+
+    private Map<String, CachedSource> cache = new HashMap<>();
+
+    ConfigurationLoader(final AbstractPemKeyStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Load the entries from the configuration, and start reloading if requested.
+     */
+    synchronized Map<String, Entry> load(final InputStream stream) throws CertificateException, IOException {
+
+        stopReloading();
+
+        final Properties p = new Properties();
+        p.load(stream);
+
+        final long period = getReloadPeriod(p);
+        if (period > 0 && this.store instanceof AbstractMutablePemKeyStore) {
+            throw new IOException(
+                    String.format("'%s' is not supported by mutable key stores, reloading would discard modifications",
+                            RELOAD_PERIOD));
+        }
+
+        // record the state before loading, so that we don't miss changes happening while loading
+
+        final Map<Path, FileStamp> stamps = period > 0 ? stamp(p) : null;
+
+        final Map<String, Entry> result = loadWithSnapshot(p);
+
+        if (period > 0) {
+            this.configuration = p;
+            this.stamps = stamps;
+            this.loads = this.store.getLoads();
+            startReloading(period);
+        }
+
+        return result;
+    }
+
+    private static long getReloadPeriod(final Properties p) throws IOException {
+        final String value = p.getProperty(RELOAD_PERIOD);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            final long result = Long.parseLong(value.trim());
+            if (result >= 0) {
+                return result;
+            }
+        } catch (final NumberFormatException e) {
+            // fall through
+        }
+        throw new IOException(String.format("Invalid value for '%s': %s", RELOAD_PERIOD, value));
+    }
+
+    /**
+     * Stop reloading, if reloading is active.
+     */
+    synchronized void stop() {
+        stopReloading();
+    }
+
+    private void startReloading(final long period) {
+        final WeakReference<ConfigurationLoader> ref = new WeakReference<>(this);
+        final ScheduledFuture<?>[] task = new ScheduledFuture<?>[1];
+        task[0] = scheduler().scheduleWithFixedDelay(() -> {
+            final ConfigurationLoader loader = ref.get();
+            if (loader != null) {
+                loader.checkForChanges();
+            } else {
+                // the key store was garbage collected
+                task[0].cancel(false);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+        this.reloadTask = task[0];
+    }
+
+    private void stopReloading() {
+        if (this.reloadTask != null) {
+            this.reloadTask.cancel(false);
+            this.reloadTask = null;
+        }
+        this.configuration = null;
+        this.stamps = null;
+        this.failedStamps = null;
+    }
+
+    synchronized void checkForChanges() {
+        if (this.configuration == null) {
+            return;
+        }
+
+        if (this.store.getLoads() != this.loads) {
+            // the key store was re-initialized in the meantime
+            stopReloading();
+            return;
+        }
+
+        final Map<Path, FileStamp> stamps = stamp(this.configuration);
+        if (stamps.equals(this.stamps)) {
+            return;
+        }
+
+        final LoadMonitor monitor = LoadMonitor.begin(this.store.getClass().getName(), null);
+        boolean success = false;
+        try {
+            final Map<String, Entry> result = loadWithSnapshot(this.configuration);
+            this.store.setEntries(result);
+            this.stamps = stamps;
+            this.failedStamps = null;
+            success = true;
+        } catch (final Exception e) {
+            // only warn once, until the sources change again
+            final Level level = stamps.equals(this.failedStamps) ? Level.FINE : Level.WARNING;
+            this.failedStamps = stamps;
+            logger.log(level, "Failed to reload key store, will retry", e);
+        } finally {
+            monitor.end(success, this.store.entries.size());
+        }
+    }
+
+    /**
+     * Load the configuration, using the snapshot if one is configured and still valid.
+     */
+    private Map<String, Entry> loadWithSnapshot(final Properties p) throws CertificateException, IOException {
+        final String snapshot = p.getProperty(SNAPSHOT);
+        if (snapshot == null) {
+            return loadFromConfiguration(p);
+        }
+
+        final Path file = Paths.get(snapshot);
+        final String kind = "PEMCFG:" + p.getProperty("alias", "pem");
+
+        final List<Snapshot.Source> sources = new ArrayList<>();
+        for (final String source : PemUtils.getSources(p)) {
+            sources.add(Snapshot.Source.of(source));
+        }
+
+        Map<String, Entry> result = Snapshot.read(file, kind, sources);
+        if (result == null) {
+            result = loadFromConfiguration(p);
+            Snapshot.write(file, kind, sources, result);
+        }
+        return result;
+    }
+
+    /**
+     * Load the configuration, re-using the entries of unchanged sources.
+     * <p>
+     * The sources are loaded concurrently, see
+     * {@link PemUtils#loadFromConfiguration(Properties, PemUtils.SourceLoader)}.
+     * </p>
+     */
+    private Map<String, Entry> loadFromConfiguration(final Properties p) throws CertificateException, IOException {
+        final Map<String, CachedSource> cache = new ConcurrentHashMap<>();
+        final Map<String, CachedSource> previous = this.cache;
+
+        final Map<String, Entry> result = PemUtils.loadFromConfiguration(p, source -> {
+            final CachedSource cached = loadSource(source, previous.get(source));
+            cache.put(source, cached);
+            return cached.entry;
+        });
+
+        // only keep the sources still in use
+
+        this.cache = cache;
+        return result;
+    }
+
+    private static CachedSource loadSource(final String source, final CachedSource cached)
+            throws CertificateException, IOException {
+
+        final LoadMonitor monitor = LoadMonitor.current();
+        final long start = monitor.now();
+        final Object event = monitor.beginSource();
+
+        final Path path = PemUtils.getSourcePath(source);
+
+        // fast path, same size and timestamp
+
+        final FileStamp stamp = path != null ? FileStamp.of(path) : null;
+        if (cached != null && stamp != null && stamp.equals(cached.stamp)) {
+            monitor.sourceRead(start, event, source, 0, true);
+            return cached;
+        }
+
+        // read the content, and check if the content is unchanged
+
+        final byte[] content = readFully(PemUtils.openResource(source));
+        final byte[] hash = sha256(content);
+
+        if (cached != null && Arrays.equals(hash, cached.hash)) {
+            monitor.sourceRead(start, event, source, content.length, true);
+            return new CachedSource(stamp, hash, cached.entry);
+        }
+
+        monitor.sourceRead(start, event, source, content.length, false);
+
+        return new CachedSource(stamp, hash, PemUtils.loadEntry(new ByteArrayInputStream(content)));
+    }
+
+    private static byte[] readFully(final InputStream stream) throws IOException {
+        try (InputStream in = stream) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8 * 1024];
+            int len;
+            while ((len = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, len);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] sha256(final byte[] content) {
+        try {
+            return FactoryPool.MESSAGE_DIGESTS.apply("SHA-256", digest -> digest.digest(content));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new ProviderException(e);
+        }
+    }
+
+    private static Map<Path, FileStamp> stamp(final Properties p) {
+        final Map<Path, FileStamp> result = new HashMap<>();
+        for (final String source : PemUtils.getSources(p)) {
+            final Path path = PemUtils.getSourcePath(source);
+            if (path != null) {
+                result.put(path, FileStamp.of(path));
+            }
+        }
+        return result;
+    }
+
+    private static synchronized ScheduledThreadPoolExecutor scheduler() {
+        if (scheduler == null) {
+            scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+                final Thread thread = new Thread(r, "pem-keystore-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+        }
+        return scheduler;
+    }
+
+    /**
+     * The entry loaded from a source, along with the fingerprint of the source.
+     */
+    private static final class CachedSource {
+
+        private final FileStamp stamp;
+        private final byte[] hash;
+        private final Entry entry;
+
+        CachedSource(final FileStamp stamp, final byte[] hash, final Entry entry) {
+            this.stamp = stamp;
+            this.hash = hash;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * The size and modification timestamp of a file.
+     */
+    static final class FileStamp {
+
+        private static final FileStamp MISSING = new FileStamp(-1, -1);
+
+        private final long size;
+        private final long lastModified;
+
+        private FileStamp(final long size, final long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        static FileStamp of(final Path path) {
+            try {
+                return new FileStamp(Files.size(path), Files.getLastModifiedTime(path).toMillis());
+            } catch (final IOException e) {
+                return MISSING;
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(this.size) * 31 + Long.hashCode(this.lastModified);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FileStamp)) {
+                return false;
+            }
+            final FileStamp other = (FileStamp) obj;
+            return this.size == other.size && this.lastModified == other.lastModified;
+        }
+    }
+}
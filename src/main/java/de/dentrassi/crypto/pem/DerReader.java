@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A minimal reader for DER encoded ASN.1 structures.
+ * <p>
+ * The reader only supports what is required for reading key structures: single byte tags and definite lengths.
+ * Constructed values are read by creating a new reader for their content, which shares the underlying buffer.
+ * </p>
+ * <p>
+ * Values are read straight from the buffer, one after the other, so that reading a structure doesn't build a tree
+ * of ASN.1 objects first.
+ * </p>
+ */
+final class DerReader {
+
+    static final int INTEGER = 0x02;
+    static final int BIT_STRING = 0x03;
+    static final int OCTET_STRING = 0x04;
+    static final int OBJECT_IDENTIFIER = 0x06;
+    static final int SEQUENCE = 0x30;
+
+    /**
+     * The tag of a constructed, context specific value, which needs to be combined with the tag number.
+     */
+    static final int CONTEXT_SPECIFIC = 0xA0;
+
+    private final byte[] data;
+    private final int end;
+    private int position;
+
+    DerReader(final byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    DerReader(final byte[] data, final int offset, final int length) {
+        this.data = data;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    /**
+     * Check if there are more values to read.
+     */
+    boolean hasMore() {
+        return this.position < this.end;
+    }
+
+    /**
+     * Get the tag of the next value, without consuming it.
+     *
+     * @return the tag, or {@code -1} if there are no more values
+     */
+    int peekTag() {
+        return hasMore() ? this.data[this.position] & 0xFF : -1;
+    }
+
+    /**
+     * Read a sequence.
+     *
+     * @return a reader for the content of the sequence
+     */
+    DerReader readSequence() throws IOException {
+        return readConstructed(SEQUENCE);
+    }
+
+    /**
+     * Read a constructed value of the provided tag.
+     *
+     * @return a reader for the content of the value
+     */
+    DerReader readConstructed(final int tag) throws IOException {
+        final int length = readHeader(tag);
+        final DerReader result = new DerReader(this.data, this.position, length);
+        this.position += length;
+        return result;
+    }
+
+    /**
+     * Read an integer.
+     * <p>
+     * The content is copied straight from the buffer, without creating any intermediate objects.
+     * </p>
+     *
+     * @return the value of the integer
+     */
+    BigInteger readInteger() throws IOException {
+        final int length = readHeader(INTEGER);
+        if (length == 0) {
+            throw new IOException("Empty integer");
+        }
+
+        final BigInteger result = new BigInteger(Arrays.copyOfRange(this.data, this.position, this.position + length));
+        this.position += length;
+        return result;
+    }
+
+    /**
+     * Read an octet string.
+     *
+     * @return a copy of the content
+     */
+    byte[] readOctetString() throws IOException {
+        final int length = readHeader(OCTET_STRING);
+        final byte[] result = Arrays.copyOfRange(this.data, this.position, this.position + length);
+        this.position += length;
+        return result;
+    }
+
+    /**
+     * Read a bit string, which must consist of whole bytes.
+     *
+     * @return a copy of the content, without the leading count of unused bits
+     */
+    byte[] readBitString() throws IOException {
+        final int length = readHeader(BIT_STRING);
+        if (length == 0 || this.data[this.position] != 0) {
+            throw new IOException("Unsupported bit string");
+        }
+        final byte[] result = Arrays.copyOfRange(this.data, this.position + 1, this.position + length);
+        this.position += length;
+        return result;
+    }
+
+    /**
+     * Read an object identifier.
+     *
+     * @return the object identifier in its dotted form, e.g. {@code 1.2.840.113549.1.1.1}
+     */
+    String readObjectIdentifier() throws IOException {
+        final int length = readHeader(OBJECT_IDENTIFIER);
+        if (length == 0) {
+            throw new IOException("Empty object identifier");
+        }
+
+        final StringBuilder sb = new StringBuilder(length * 3);
+        final int end = this.position + length;
+
+        long value = 0;
+        boolean first = true;
+        while (this.position < end) {
+            final int b = this.data[this.position++] & 0xFF;
+            if (value > (Long.MAX_VALUE >>> 7)) {
+                throw new IOException("Object identifier component too large");
+            }
+            value = (value << 7) | (b & 0x7F);
+            if ((b & 0x80) != 0) {
+                continue;
+            }
+
+            if (first) {
+                // the first two components are encoded into a single value
+                final long root = Math.min(value / 40, 2);
+                sb.append(root).append('.').append(value - root * 40);
+                first = false;
+            } else {
+                sb.append('.').append(value);
+            }
+            value = 0;
+        }
+
+        if ((this.data[end - 1] & 0x80) != 0) {
+            throw new IOException("Truncated object identifier");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Skip the next value.
+     */
+    void skip() throws IOException {
+        final int length = readHeader(peekTag());
+        this.position += length;
+    }
+
+    /**
+     * Read the tag and length of the next value.
+     *
+     * @param tag the expected tag
+     * @return the length of the content, the position will be at the start of the content
+     * @throws IOException if the tag doesn't match, or the length is invalid
+     */
+    private int readHeader(final int tag) throws IOException {
+        if (!hasMore()) {
+            throw new IOException("Unexpected end of data");
+        }
+
+        final int actual = this.data[this.position] & 0xFF;
+        if (actual != tag) {
+            throw new IOException(String.format("Unexpected tag - expected: 0x%02x, actual: 0x%02x", tag, actual));
+        }
+        this.position++;
+
+        if (!hasMore()) {
+            throw new IOException("Unexpected end of data");
+        }
+
+        int length = this.data[this.position++] & 0xFF;
+        if (length > 0x7F) {
+            final int count = length & 0x7F;
+            if (count == 0 || count > 3 || this.position + count > this.end) {
+                throw new IOException("Invalid length encoding");
+            }
+            length = 0;
+            for (int i = 0; i < count; i++) {
+                length = (length << 8) | (this.data[this.position++] & 0xFF);
+            }
+        }
+
+        if (length > this.end - this.position) {
+            throw new IOException("Length exceeds available data");
+        }
+
+        return length;
+    }
+}
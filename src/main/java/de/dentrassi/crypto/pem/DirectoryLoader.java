@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+import de.dentrassi.crypto.pem.AbstractPemKeyStore.Entry;
+
+/**
+ * Loads the entries of a {@code PEMDIR} key store from a directory.
+ * <p>
+ * Each certificate file, together with its key file, becomes an entry of its own:
+ * </p>
+ * <ul>
+ * <li>A file {@code <name>.crt} in the directory, with the optional key file {@code <name>.key}, becomes the entry
+ * {@code <name>}.</li>
+ * <li>A sub-directory {@code <name>} of the directory, containing the file {@code tls.crt}, with the optional key file
+ * {@code tls.key}, becomes the entry {@code <name>}. This is the layout of Kubernetes TLS secrets, mounted into
+ * a common directory.</li>
+ * </ul>
+ * <p>
+ * Files and directories starting with a dot are ignored. This includes the {@code ..data} directories, which
+ * Kubernetes uses for updating mounted secrets atomically. Symbolic links are followed.
+ * </p>
+ * <p>
+ * The entries are read and decoded in parallel, with a bounded number of concurrent tasks. If any entry fails to
+ * load, loading fails as a whole.
+ * </p>
+ */
+final class DirectoryLoader {
+
+    static final String DIRECTORY = "directory";
+    static final String THREADS = "threads";
+
+    static final String CERTIFICATE_SUFFIX = ".crt";
+    static final String KEY_SUFFIX = ".key";
+
+    static final String SECRET_CERTIFICATE = "tls.crt";
+    static final String SECRET_KEY = "tls.key";
+
+    private DirectoryLoader() {
+    }
+
+    /**
+     * Load all entries of the directory referenced by a configuration.
+     *
+     * @param stream the configuration, in the format of {@link Properties}
+     */
+    static Map<String, Entry> load(final InputStream stream) throws CertificateException, IOException {
+        final Properties p = new Properties();
+        p.load(stream);
+
+        final String directory = p.getProperty(DIRECTORY);
+        if (directory == null) {
+            throw new IOException("Missing property: " + DIRECTORY);
+        }
+
+        final String threads = p.getProperty(THREADS);
+
+        return load(Paths.get(directory), null,
+                threads != null ? ParallelLoader.parseThreads(THREADS, threads) : ParallelLoader.defaultThreads());
+    }
+
+    /**
+     * Load all entries of a directory.
+     *
+     * @param directory the directory to load from
+     * @param executor the executor to load on, or {@code null} to use a temporary thread pool with the default number
+     *        of threads
+     */
+    static Map<String, Entry> load(final Path directory, final Executor executor)
+            throws CertificateException, IOException {
+        return load(directory, executor, ParallelLoader.defaultThreads());
+    }
+
+    /**
+     * Load all entries of a directory.
+     *
+     * @param directory the directory to load from
+     * @param executor the executor to load on, or {@code null} to use a temporary thread pool
+     * @param threads the number of threads of the temporary thread pool
+     */
+    static Map<String, Entry> load(final Path directory, final Executor executor, final int threads)
+            throws CertificateException, IOException {
+
+        final List<Pair> pairs = discover(directory);
+
+        final List<ParallelLoader.Task<Entry>> tasks = new ArrayList<>(pairs.size());
+        for (final Pair pair : pairs) {
+            tasks.add(pair::load);
+        }
+
+        final List<Entry> entries = executor != null ? ParallelLoader.run(tasks, executor)
+                : ParallelLoader.run(tasks, threads);
+
+        final Map<String, Entry> result = new HashMap<>(pairs.size() * 4 / 3 + 1);
+        for (int i = 0; i < pairs.size(); i++) {
+            final Entry entry = entries.get(i);
+            if (entry != null) {
+                result.put(pairs.get(i).alias, entry);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Find all pairs of certificate and key files.
+     *
+     * @return the pairs, ordered by alias
+     * @throws IOException if reading the directory fails, or if two pairs have the same alias
+     */
+    static List<Pair> discover(final Path directory) throws IOException {
+        final List<Pair> result = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (final Path path : stream) {
+                final String name = path.getFileName().toString();
+                if (name.startsWith(".")) {
+                    continue;
+                }
+
+                if (Files.isDirectory(path)) {
+                    final Path certificate = path.resolve(SECRET_CERTIFICATE);
+                    if (Files.isRegularFile(certificate)) {
+                        result.add(new Pair(name, certificate, path.resolve(SECRET_KEY)));
+                    }
+                } else if (name.endsWith(CERTIFICATE_SUFFIX) && name.length() > CERTIFICATE_SUFFIX.length()) {
+                    final String alias = name.substring(0, name.length() - CERTIFICATE_SUFFIX.length());
+                    result.add(new Pair(alias, path, path.resolveSibling(alias + KEY_SUFFIX)));
+                }
+            }
+        }
+
+        // directory listings have no defined order
+
+        result.sort(Comparator.comparing(Pair::getAlias));
+
+        for (int i = 1; i < result.size(); i++) {
+            if (result.get(i - 1).alias.equals(result.get(i).alias)) {
+                throw new IOException(String.format("Duplicate alias '%s': %s and %s", result.get(i).alias,
+                        result.get(i - 1).certificate, result.get(i).certificate));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * A certificate file, and its optional key file.
+     */
+    static final class Pair {
+
+        private final String alias;
+        private final Path certificate;
+        private final Path key;
+
+        Pair(final String alias, final Path certificate, final Path key) {
+            this.alias = alias;
+            this.certificate = certificate;
+            this.key = key;
+        }
+
+        String getAlias() {
+            return this.alias;
+        }
+
+        Entry load() throws CertificateException, IOException {
+            final Entry key = Files.isRegularFile(this.key) ? loadFile(this.key) : null;
+            final Entry certificate = loadFile(this.certificate);
+            return key != null ? key.merge(certificate) : certificate;
+        }
+
+        private static Entry loadFile(final Path path) throws CertificateException, IOException {
+            final LoadMonitor monitor = LoadMonitor.current();
+            final long start = monitor.now();
+            final Object event = monitor.beginSource();
+            final byte[] content = Files.readAllBytes(path);
+            monitor.sourceRead(start, event, path.toString(), content.length, false);
+
+            try {
+                return PemUtils.loadEntry(new ByteArrayInputStream(content));
+            } catch (final CertificateException e) {
+                throw new CertificateException("Failed to load: " + path, e);
+            } catch (final IOException e) {
+                throw new IOException("Failed to load: " + path, e);
+            }
+        }
+    }
+}
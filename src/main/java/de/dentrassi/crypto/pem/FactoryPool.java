@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A pool of JCA factory instances, by algorithm.
+ * <p>
+ * Looking up a factory with {@code getInstance} walks the list of providers each time, which is expensive and
+ * contended when loading in parallel. Factory instances however are not thread safe. So instances get borrowed from
+ * the pool for the duration of a single operation, and returned afterwards. A new instance is only created when no
+ * idle instance is available, so the number of instances is bounded by the number of concurrent operations.
+ * </p>
+ * <p>
+ * Instances are created once, and kept. Providers which are registered later on will not be picked up for algorithms
+ * which already have been used.
+ * </p>
+ *
+ * @param <F> the type of the factory
+ * @param <E> the exception thrown when creating a factory
+ */
+final class FactoryPool<F, E extends Exception> {
+
+    @FunctionalInterface
+    interface Creator<F, E extends Exception> {
+        F create(String algorithm) throws E;
+    }
+
+    @FunctionalInterface
+    interface Operation<F, T, X extends Exception> {
+        T apply(F factory) throws X;
+    }
+
+    static final FactoryPool<CertificateFactory, CertificateException> CERTIFICATE_FACTORIES = new FactoryPool<>(
+            CertificateFactory::getInstance);
+
+    static final FactoryPool<KeyFactory, NoSuchAlgorithmException> KEY_FACTORIES = new FactoryPool<>(
+            KeyFactory::getInstance);
+
+    static final FactoryPool<MessageDigest, NoSuchAlgorithmException> MESSAGE_DIGESTS = new FactoryPool<>(
+            MessageDigest::getInstance);
+
+    private final Creator<F, E> creator;
+
+    private final ConcurrentMap<String, Deque<F>> idle = new ConcurrentHashMap<>();
+
+    private FactoryPool(final Creator<F, E> creator) {
+        this.creator = creator;
+    }
+
+    /**
+     * Run an operation with a factory of the requested algorithm.
+     * <p>
+     * The factory must not be used outside of the operation.
+     * </p>
+     *
+     * @param algorithm the algorithm of the factory
+     * @param operation the operation to run
+     * @return the result of the operation
+     * @throws E if no factory could be created
+     * @throws X if the operation failed
+     */
+    <T, X extends Exception> T apply(final String algorithm, final Operation<F, T, X> operation) throws E, X {
+
+        Deque<F> idle = this.idle.get(algorithm);
+        if (idle == null) {
+            idle = this.idle.computeIfAbsent(algorithm, k -> new ConcurrentLinkedDeque<>());
+        }
+
+        F factory = idle.pollFirst();
+        if (factory == null) {
+            factory = this.creator.create(algorithm);
+        }
+
+        final T result = operation.apply(factory);
+
+        // only return the instance if the operation succeeded, the state is undefined otherwise
+
+        idle.offerFirst(factory);
+        return result;
+    }
+
+}
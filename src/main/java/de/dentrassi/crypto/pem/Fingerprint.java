@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * The digest of some encoded content, usable as a hash key.
+ */
+final class Fingerprint {
+
+    private final byte[] value;
+    private final int hash;
+
+    private Fingerprint(final byte[] value) {
+        this.value = value;
+        this.hash = Arrays.hashCode(value);
+    }
+
+    static Fingerprint of(final MessageDigest digest, final byte[] encoded) {
+        return new Fingerprint(digest.digest(encoded));
+    }
+
+    static Fingerprint of(final MessageDigest digest, final byte[] encoded, final int length) {
+        digest.update(encoded, 0, length);
+        return new Fingerprint(digest.digest());
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Fingerprint)) {
+            return false;
+        }
+        return Arrays.equals(this.value, ((Fingerprint) obj).value);
+    }
+}
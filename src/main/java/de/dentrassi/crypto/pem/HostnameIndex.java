@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.cert.CertificateParsingException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.naming.InvalidNameException;
+import javax.naming.ldap.LdapName;
+import javax.naming.ldap.Rdn;
+
+/**
+ * An index of aliases by the host names of their certificates.
+ * <p>
+ * Host names are taken from the DNS names of the subject alternative names of a certificate. Only if a certificate
+ * has no DNS names, the common name of the subject is used instead. Wildcards are supported as the complete left-most
+ * label, e.g. {@code *.example.com}, and match exactly one label.
+ * </p>
+ * <p>
+ * A lookup requires at most two hash lookups, one for the exact name, and one for the wildcard name. Exact matches
+ * take precedence over wildcard matches.
+ * </p>
+ * <p>
+ * Instances are not thread safe. Instances which do not get modified any more can be shared after being safely
+ * published.
+ * </p>
+ */
+final class HostnameIndex {
+
+    private static final int DNS_NAME = 2;
+
+    private final Map<String, List<String>> exact = new HashMap<>();
+
+    /**
+     * Aliases of wildcard names, by the name without the wildcard label.
+     */
+    private final Map<String, List<String>> wildcard = new HashMap<>();
+
+    /**
+     * Add the host names of a certificate.
+     * <p>
+     * Aliases should be added in the order they should be preferred.
+     * </p>
+     */
+    void add(final String alias, final X509Certificate certificate) {
+        for (final String name : getHostnames(certificate)) {
+            final String normalized = normalize(name);
+            if (normalized.startsWith("*.")) {
+                add(this.wildcard, normalized.substring(2), alias);
+            } else if (normalized.indexOf('*') < 0) {
+                add(this.exact, normalized, alias);
+            }
+        }
+    }
+
+    private static void add(final Map<String, List<String>> index, final String name, final String alias) {
+        final List<String> aliases = index.computeIfAbsent(name, k -> new ArrayList<>(1));
+        if (!aliases.contains(alias)) {
+            aliases.add(alias);
+        }
+    }
+
+    /**
+     * Find the aliases matching a host name.
+     *
+     * @param hostname the host name to look for
+     * @return the aliases with an exact match, or if there are none, the aliases with a matching wildcard name. Never
+     *         returns {@code null}.
+     */
+    List<String> find(final String hostname) {
+        final String normalized = normalize(hostname);
+
+        final List<String> result = this.exact.get(normalized);
+        if (result != null) {
+            return result;
+        }
+
+        final int idx = normalized.indexOf('.');
+        if (idx > 0) {
+            final List<String> wildcard = this.wildcard.get(normalized.substring(idx + 1));
+            if (wildcard != null) {
+                return wildcard;
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    private static String normalize(final String hostname) {
+        String result = hostname.toLowerCase(Locale.ENGLISH);
+        if (result.endsWith(".")) {
+            result = result.substring(0, result.length() - 1);
+        }
+        return result;
+    }
+
+    private static List<String> getHostnames(final X509Certificate certificate) {
+        final List<String> result = new ArrayList<>();
+
+        try {
+            final Collection<List<?>> names = certificate.getSubjectAlternativeNames();
+            if (names != null) {
+                for (final List<?> name : names) {
+                    if (name.size() >= 2 && Integer.valueOf(DNS_NAME).equals(name.get(0))
+                            && name.get(1) instanceof String) {
+                        result.add((String) name.get(1));
+                    }
+                }
+            }
+        } catch (final CertificateParsingException e) {
+            // ignore invalid names
+        }
+
+        if (result.isEmpty()) {
+            try {
+                for (final Rdn rdn : new LdapName(certificate.getSubjectX500Principal().getName()).getRdns()) {
+                    if ("CN".equalsIgnoreCase(rdn.getType()) && rdn.getValue() instanceof String) {
+                        result.add((String) rdn.getValue());
+                    }
+                }
+            } catch (final InvalidNameException e) {
+                // ignore invalid names
+            }
+        }
+
+        return result;
+    }
+}
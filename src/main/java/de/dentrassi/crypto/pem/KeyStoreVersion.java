@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the version of the entries of a single key store, allowing to detect that they were modified.
+ * <p>
+ * For PEM key stores, this is the version of the entries, which is cheap to get, and changes with every load and
+ * modification of this key store only. Other key stores don't provide a version. For them, the aliases and their
+ * creation dates are hashed, at most once per {@value #CHECK_INTERVAL_MILLIS} milliseconds.
+ * </p>
+ */
+final class KeyStoreVersion {
+
+    private static final long CHECK_INTERVAL_MILLIS = 1_000;
+    private static final long CHECK_INTERVAL = TimeUnit.MILLISECONDS.toNanos(CHECK_INTERVAL_MILLIS);
+
+    private final KeyStore keyStore;
+    private final boolean pem;
+
+    private volatile long lastCheck;
+    private volatile long lastVersion;
+
+    KeyStoreVersion(final KeyStore keyStore) throws KeyStoreException {
+        this.keyStore = keyStore;
+        this.pem = keyStore != null && keyStore.aliases() instanceof AbstractPemKeyStore.Aliases;
+        if (keyStore != null && !this.pem) {
+            this.lastCheck = System.nanoTime();
+            this.lastVersion = hash(keyStore);
+        }
+    }
+
+    /**
+     * Get the current version.
+     * <p>
+     * Versions must only be compared for equality. When building state from the key store, the version must be
+     * acquired before reading the entries, so that modifications happening while reading are not missed.
+     * </p>
+     */
+    long get() {
+        if (this.keyStore == null) {
+            return 0;
+        }
+
+        try {
+            if (this.pem) {
+                return ((AbstractPemKeyStore.Aliases) this.keyStore.aliases()).getVersion();
+            }
+
+            final long now = System.nanoTime();
+            if (now - this.lastCheck < CHECK_INTERVAL) {
+                return this.lastVersion;
+            }
+
+            // concurrent checks may hash the key store at the same time, but will get the same result
+
+            final long result = hash(this.keyStore);
+            this.lastVersion = result;
+            this.lastCheck = now;
+            return result;
+        } catch (final KeyStoreException e) {
+            // the key store is not initialized, nothing will change
+            return this.lastVersion;
+        }
+    }
+
+    private static long hash(final KeyStore keyStore) throws KeyStoreException {
+        // the order of the aliases is not defined, so the aliases are combined in an order independent way
+
+        long result = 0;
+        int size = 0;
+        for (final Enumeration<String> aliases = keyStore.aliases(); aliases.hasMoreElements();) {
+            final String alias = aliases.nextElement();
+            final Date created = keyStore.getCreationDate(alias);
+            result += mix(alias.hashCode() * 31L + (created != null ? created.getTime() : 0));
+            size++;
+        }
+        return mix(result + size);
+    }
+
+    /**
+     * Spread the bits of a value, see the finalizer of MurmurHash3.
+     */
+    private static long mix(final long value) {
+        long result = value;
+        result ^= result >>> 33;
+        result *= 0xff51afd7ed558ccdL;
+        result ^= result >>> 33;
+        result *= 0xc4ceb9fe1a85ec53L;
+        result ^= result >>> 33;
+        return result;
+    }
+}
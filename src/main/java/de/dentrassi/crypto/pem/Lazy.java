@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.ProviderException;
+import java.util.Objects;
+
+/**
+ * A value, which might only get computed when it is requested for the first time.
+ * <p>
+ * The computation happens at most once, even when accessed concurrently.
+ * </p>
+ *
+ * @param <T> the type of the value
+ */
+abstract class Lazy<T> {
+
+    @FunctionalInterface
+    interface Decoder<T> {
+        T decode() throws Exception;
+    }
+
+    private Lazy() {
+    }
+
+    /**
+     * Get the value, computing it if necessary.
+     *
+     * @throws ProviderException if computing the value failed
+     */
+    abstract T get();
+
+    /**
+     * Check if the value is already present.
+     */
+    abstract boolean isPresent();
+
+    /**
+     * Create an instance holding an existing value.
+     */
+    static <T> Lazy<T> of(final T value) {
+        Objects.requireNonNull(value);
+        return new Lazy<T>() {
+
+            @Override
+            T get() {
+                return value;
+            }
+
+            @Override
+            boolean isPresent() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Create an instance which will decode its value on first access.
+     * <p>
+     * The decoder will be released once the value has been decoded successfully.
+     * </p>
+     */
+    static <T> Lazy<T> decode(final Decoder<T> decoder) {
+        return new Decoding<>(decoder);
+    }
+
+    private static final class Decoding<T> extends Lazy<T> {
+
+        private volatile T value;
+        private Decoder<T> decoder;
+
+        Decoding(final Decoder<T> decoder) {
+            this.decoder = Objects.requireNonNull(decoder);
+        }
+
+        @Override
+        T get() {
+            final T value = this.value;
+            if (value != null) {
+                return value;
+            }
+            return decodeValue();
+        }
+
+        @Override
+        boolean isPresent() {
+            return this.value != null;
+        }
+
+        private synchronized T decodeValue() {
+            if (this.value == null) {
+                try {
+                    this.value = Objects.requireNonNull(this.decoder.decode());
+                } catch (final ProviderException e) {
+                    throw e;
+                } catch (final Exception e) {
+                    throw new ProviderException("Failed to decode entry", e);
+                }
+                this.decoder = null;
+            }
+            return this.value;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder events for loading key stores.
+ * <p>
+ * This class must only be used after checking that the JFR API is available, see {@link LoadMonitor}.
+ * </p>
+ * <p>
+ * All events are started before the work they measure, so that their duration is the time spent on it.
+ * </p>
+ */
+final class LoadEvents {
+
+    private static final String PREFIX = "de.dentrassi.crypto.pem.";
+    private static final String CATEGORY = "PEM Key Store";
+
+    private LoadEvents() {
+    }
+
+    @Name(PREFIX + "Load")
+    @Label("Key Store Load")
+    @Description("Loading a PEM based key store")
+    @Category(CATEGORY)
+    static final class LoadEvent extends Event {
+
+        @Label("Key Store")
+        String keyStore;
+
+        @Label("Success")
+        boolean success;
+
+        @Label("Entries")
+        int entries;
+
+        @Label("Bytes Read")
+        @DataAmount
+        long bytesRead;
+
+        @Label("Bytes Decoded")
+        @DataAmount
+        long bytesDecoded;
+    }
+
+    @Name(PREFIX + "Decode")
+    @Label("PEM Object Decode")
+    @Description("Decoding the DER content of a PEM object")
+    @Category(CATEGORY)
+    static final class DecodeEvent extends Event {
+
+        @Label("Object Type")
+        String objectType;
+
+        @Label("Bytes")
+        @DataAmount
+        int bytes;
+    }
+
+    @Name(PREFIX + "Source")
+    @Label("Source Read")
+    @Description("Reading a source of a PEMCFG key store")
+    @Category(CATEGORY)
+    static final class SourceEvent extends Event {
+
+        @Label("Source")
+        String source;
+
+        @Label("Reused")
+        @Description("The source was unchanged, and the previous entry was re-used")
+        boolean reused;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    static boolean isLoadEnabled() {
+        return EventType.getEventType(LoadEvent.class).isEnabled();
+    }
+
+    static boolean isDecodeEnabled() {
+        return EventType.getEventType(DecodeEvent.class).isEnabled();
+    }
+
+    static boolean isSourceEnabled() {
+        return EventType.getEventType(SourceEvent.class).isEnabled();
+    }
+
+    static Object beginLoad(final String keyStore) {
+        final LoadEvent event = new LoadEvent();
+        event.keyStore = keyStore;
+        event.begin();
+        return event;
+    }
+
+    static void commitLoad(final Object load, final boolean success, final int entries, final long bytesRead,
+            final long bytesDecoded) {
+        final LoadEvent event = (LoadEvent) load;
+        event.end();
+        if (event.shouldCommit()) {
+            event.success = success;
+            event.entries = entries;
+            event.bytesRead = bytesRead;
+            event.bytesDecoded = bytesDecoded;
+            event.commit();
+        }
+    }
+
+    static Object beginDecode() {
+        final DecodeEvent event = new DecodeEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitDecode(final Object decode, final String objectType, final int bytes) {
+        final DecodeEvent event = (DecodeEvent) decode;
+        event.end();
+        if (event.shouldCommit()) {
+            event.objectType = objectType;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    static Object beginSource() {
+        final SourceEvent event = new SourceEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitSource(final Object read, final String source, final boolean reused, final long bytes) {
+        final SourceEvent event = (SourceEvent) read;
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = source;
+            event.reused = reused;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+}
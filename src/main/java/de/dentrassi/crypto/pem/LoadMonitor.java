@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures the phases of loading a key store.
+ * <p>
+ * A monitor is active for the duration of a load operation, and is bound to the loading thread, so that the code
+ * reading and decoding PEM objects can find it using {@link #current()}. Work which is handed off to other threads
+ * must capture the monitor before doing so, and either pass it on, or {@link #bind()} it to the other thread.
+ * </p>
+ * <p>
+ * The measurements are reported as {@link LoadReport} to a listener, and as JDK Flight Recorder events, if the JFR
+ * API is available. If there is no listener, and no flight recording is running, monitoring is disabled and the
+ * instrumented code only pays for a check of a final field.
+ * </p>
+ * <p>
+ * The monitor also reports the progress of loading every time a source was read or an object was decoded, and checks
+ * for the cancellation of an asynchronous load also every time an object was scanned. And it provides the table for
+ * interning certificates, if the load operation requested to share decoded certificates.
+ * </p>
+ */
+final class LoadMonitor {
+
+    private static final Logger logger = Logger.getLogger(LoadMonitor.class.getName());
+
+    private static final boolean EVENTS_AVAILABLE = isEventsAvailable();
+
+    private static final LoadMonitor DISABLED = new LoadMonitor(null, null, null, null, false, false, null);
+
+    private static final ThreadLocal<LoadMonitor> CURRENT = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final Consumer<LoadReport> listener;
+    private final LoadProgressListener progressListener;
+    private final BooleanSupplier cancelled;
+    private final Object loadEvent;
+    private final boolean decodeEvents;
+    private final boolean sourceEvents;
+    private final CertificateInterner interner;
+    private final long started;
+
+    private LoadMonitor previous;
+
+    private final LongAdder readTime = new LongAdder();
+    private final LongAdder scanTime = new LongAdder();
+    private final LongAdder certificateTime = new LongAdder();
+    private final LongAdder keyTime = new LongAdder();
+    private final LongAdder sources = new LongAdder();
+    private final LongAdder certificates = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesDecoded = new LongAdder();
+
+    private LoadMonitor(final Consumer<LoadReport> listener, final LoadProgressListener progressListener,
+            final BooleanSupplier cancelled, final Object loadEvent, final boolean decodeEvents,
+            final boolean sourceEvents, final CertificateInterner interner) {
+        this.enabled = listener != null || progressListener != null || cancelled != null || loadEvent != null
+                || decodeEvents || sourceEvents;
+        this.listener = listener;
+        this.progressListener = progressListener;
+        this.cancelled = cancelled;
+        this.loadEvent = loadEvent;
+        this.decodeEvents = decodeEvents;
+        this.sourceEvents = sourceEvents;
+        this.interner = interner;
+        this.started = this.enabled ? System.nanoTime() : 0;
+    }
+
+    private static boolean isEventsAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Start monitoring a load operation on the current thread.
+     * <p>
+     * Every call must be followed by a call to {@link #end(boolean, int)} on the same thread.
+     * </p>
+     *
+     * @param keyStore the name of the key store being loaded
+     * @param parameter the parameter used for loading, providing the listeners, may be {@code null}
+     * @return the monitor, never {@code null}
+     */
+    static LoadMonitor begin(final String keyStore, final PemLoadParameter parameter) {
+        final Consumer<LoadReport> listener = parameter != null ? parameter.getReportListener() : null;
+        final LoadProgressListener progressListener = parameter != null ? parameter.getProgressListener() : null;
+        final BooleanSupplier cancelled = parameter != null ? parameter.getCancellation() : null;
+        final CertificateInterner interner = parameter != null && parameter.isSharedCertificates()
+                ? CertificateInterner.shared()
+                : null;
+
+        Object loadEvent = null;
+        boolean decodeEvents = false;
+        boolean sourceEvents = false;
+        if (EVENTS_AVAILABLE) {
+            loadEvent = LoadEvents.isLoadEnabled() ? LoadEvents.beginLoad(keyStore) : null;
+            decodeEvents = LoadEvents.isDecodeEnabled();
+            sourceEvents = LoadEvents.isSourceEnabled();
+        }
+
+        if (listener == null && progressListener == null && cancelled == null && loadEvent == null
+                && !decodeEvents && !sourceEvents && interner == null) {
+            return DISABLED;
+        }
+
+        final LoadMonitor result = new LoadMonitor(listener, progressListener, cancelled, loadEvent, decodeEvents,
+                sourceEvents, interner);
+        result.previous = result.bind();
+        return result;
+    }
+
+    /**
+     * Bind the monitor to the current thread.
+     * <p>
+     * This allows threads, which load on behalf of the thread that started monitoring, to report to the same monitor.
+     * Every call must be followed by a call to {@link #restore(LoadMonitor)} on the same thread.
+     * </p>
+     *
+     * @return the monitor which was bound to the thread before, may be {@code null}
+     */
+    LoadMonitor bind() {
+        final LoadMonitor result = CURRENT.get();
+        if (this != DISABLED) {
+            CURRENT.set(this);
+        }
+        return result;
+    }
+
+    /**
+     * Restore the monitor which was bound to the current thread before calling {@link #bind()}.
+     *
+     * @param previous the result of {@link #bind()}
+     */
+    static void restore(final LoadMonitor previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Get the monitor of the load operation of the current thread.
+     *
+     * @return the monitor, never {@code null}
+     */
+    static LoadMonitor current() {
+        final LoadMonitor result = CURRENT.get();
+        return result != null ? result : DISABLED;
+    }
+
+    /**
+     * Get the table to intern decoded certificates with.
+     *
+     * @return the table, or {@code null} if certificates should not be interned
+     */
+    CertificateInterner getInterner() {
+        return this.interner;
+    }
+
+    /**
+     * Get a timestamp for starting a measurement.
+     */
+    long now() {
+        return this.enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the time spent scanning the input for the next PEM object.
+     */
+    void scanned(final long start) {
+        if (this.enabled) {
+            this.scanTime.add(System.nanoTime() - start);
+            checkCancelled();
+        }
+    }
+
+    /**
+     * Start the flight recorder event for decoding a PEM object.
+     *
+     * @return the event, to be passed to {@link #decoded(long, Object, String, int)}, may be {@code null}
+     */
+    Object beginDecode() {
+        return this.decodeEvents ? LoadEvents.beginDecode() : null;
+    }
+
+    /**
+     * Start the flight recorder event for reading a source.
+     *
+     * @return the event, to be passed to {@link #sourceRead(long, Object, String, long, boolean)}, may be
+     *         {@code null}
+     */
+    Object beginSource() {
+        return this.sourceEvents ? LoadEvents.beginSource() : null;
+    }
+
+    /**
+     * Record the decoding of a PEM object.
+     *
+     * @param start the timestamp from before decoding
+     * @param event the result of {@link #beginDecode()}
+     * @param objectType the type of the PEM object
+     * @param bytes the length of the DER content
+     */
+    void decoded(final long start, final Object event, final String objectType, final int bytes) {
+        if (!this.enabled) {
+            return;
+        }
+
+        final long time = System.nanoTime() - start;
+        if (PemReader.isCertificate(objectType)) {
+            this.certificateTime.add(time);
+            this.certificates.increment();
+        } else {
+            this.keyTime.add(time);
+            this.keys.increment();
+        }
+        this.bytesDecoded.add(bytes);
+
+        if (event != null) {
+            LoadEvents.commitDecode(event, objectType, bytes);
+        }
+
+        progress();
+    }
+
+    /**
+     * Record reading a source.
+     *
+     * @param start the timestamp from before reading
+     * @param event the result of {@link #beginSource()}
+     * @param source the source location
+     * @param bytes the number of bytes read
+     * @param reused if the source was unchanged, and the previous result will be re-used
+     */
+    void sourceRead(final long start, final Object event, final String source, final long bytes,
+            final boolean reused) {
+        if (!this.enabled) {
+            return;
+        }
+
+        final long time = System.nanoTime() - start;
+        this.readTime.add(time);
+        this.bytesRead.add(bytes);
+        if (!reused) {
+            this.sources.increment();
+        }
+
+        if (event != null) {
+            LoadEvents.commitSource(event, source, reused, bytes);
+        }
+
+        progress();
+    }
+
+    private void progress() {
+        checkCancelled();
+
+        if (this.progressListener != null) {
+            this.progressListener.progress(this.certificates.intValue() + this.keys.intValue(),
+                    this.sources.intValue());
+        }
+    }
+
+    private void checkCancelled() {
+        if (this.cancelled != null && this.cancelled.getAsBoolean()) {
+            throw new CancellationException("Loading was cancelled");
+        }
+    }
+
+    /**
+     * End the load operation, and report the results.
+     * <p>
+     * The listener is only notified if the operation succeeded.
+     * </p>
+     *
+     * @param success if loading succeeded
+     * @param entries the number of entries after loading
+     */
+    void end(final boolean success, final int entries) {
+        if (this == DISABLED) {
+            return;
+        }
+
+        restore(this.previous);
+
+        if (this.loadEvent != null) {
+            LoadEvents.commitLoad(this.loadEvent, success, entries, this.bytesRead.sum(), this.bytesDecoded.sum());
+        }
+
+        if (success && this.listener != null) {
+            final LoadReport report = new LoadReport(Duration.ofNanos(System.nanoTime() - this.started),
+                    Duration.ofNanos(this.readTime.sum()), Duration.ofNanos(this.scanTime.sum()),
+                    Duration.ofNanos(this.certificateTime.sum()), Duration.ofNanos(this.keyTime.sum()), entries,
+                    this.sources.intValue(), this.certificates.intValue(), this.keys.intValue(),
+                    this.bytesRead.sum(), this.bytesDecoded.sum());
+            try {
+                this.listener.accept(report);
+            } catch (final RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to deliver load report", e);
+            }
+        }
+    }
+}
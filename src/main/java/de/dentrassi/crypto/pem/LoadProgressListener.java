@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+/**
+ * Receives the progress of loading a key store.
+ *
+ * @see PemLoadParameter#withProgressListener(LoadProgressListener)
+ */
+@FunctionalInterface
+public interface LoadProgressListener {
+
+    /**
+     * Called when loading made progress.
+     *
+     * @param objects the number of PEM objects decoded so far
+     * @param sources the number of sources read so far, only counting the sources of a {@code PEMCFG} key store, or
+     *        the files of a {@code PEMDIR} key store
+     */
+    void progress(int objects, int sources);
+
+}
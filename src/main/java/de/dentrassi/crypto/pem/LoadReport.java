@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.time.Duration;
+
+/**
+ * A report on the time spent in the different phases of loading a key store.
+ * <p>
+ * A report can be requested using {@link PemLoadParameter#withReportListener(java.util.function.Consumer)}. The time
+ * of each phase is summed up over all threads, so when decoding in parallel, the sum of the phases may exceed the
+ * total time.
+ * </p>
+ * <p>
+ * Reports are only created when loading with a {@link PemLoadParameter}. The key stores don't keep reports, so
+ * loading from an input stream, and reloading a {@code PEMCFG} key store in the background, don't create a report.
+ * For those, the same measurements are available as JDK Flight Recorder events.
+ * </p>
+ */
+public final class LoadReport {
+
+    private final Duration totalTime;
+    private final Duration readTime;
+    private final Duration scanTime;
+    private final Duration certificateTime;
+    private final Duration keyTime;
+
+    private final int entries;
+    private final int sources;
+    private final int certificates;
+    private final int keys;
+    private final long bytesRead;
+    private final long bytesDecoded;
+
+    LoadReport(final Duration totalTime, final Duration readTime, final Duration scanTime,
+            final Duration certificateTime, final Duration keyTime, final int entries, final int sources,
+            final int certificates, final int keys, final long bytesRead, final long bytesDecoded) {
+        this.totalTime = totalTime;
+        this.readTime = readTime;
+        this.scanTime = scanTime;
+        this.certificateTime = certificateTime;
+        this.keyTime = keyTime;
+        this.entries = entries;
+        this.sources = sources;
+        this.certificates = certificates;
+        this.keys = keys;
+        this.bytesRead = bytesRead;
+        this.bytesDecoded = bytesDecoded;
+    }
+
+    /**
+     * The time it took to load the key store.
+     */
+    public Duration getTotalTime() {
+        return this.totalTime;
+    }
+
+    /**
+     * The time spent reading the sources of a {@code PEMCFG} key store, or the files of a {@code PEMDIR} key store.
+     */
+    public Duration getReadTime() {
+        return this.readTime;
+    }
+
+    /**
+     * The time spent scanning for PEM objects, and decoding their base64 content.
+     * <p>
+     * This includes the time reading the input, unless it was read before, like the sources of a {@code PEMCFG} key
+     * store, or the files of a {@code PEMDIR} key store.
+     * </p>
+     */
+    public Duration getScanTime() {
+        return this.scanTime;
+    }
+
+    /**
+     * The time spent decoding certificates from their DER encoding.
+     */
+    public Duration getCertificateTime() {
+        return this.certificateTime;
+    }
+
+    /**
+     * The time spent decoding keys, including the ASN.1 processing and the key import.
+     */
+    public Duration getKeyTime() {
+        return this.keyTime;
+    }
+
+    /**
+     * The number of entries of the key store after loading.
+     */
+    public int getEntries() {
+        return this.entries;
+    }
+
+    /**
+     * The number of sources which were read, not counting unchanged sources which were re-used.
+     */
+    public int getSources() {
+        return this.sources;
+    }
+
+    /**
+     * The number of decoded certificates.
+     */
+    public int getCertificates() {
+        return this.certificates;
+    }
+
+    /**
+     * The number of decoded keys.
+     */
+    public int getKeys() {
+        return this.keys;
+    }
+
+    /**
+     * The number of bytes read from sources.
+     */
+    public long getBytesRead() {
+        return this.bytesRead;
+    }
+
+    /**
+     * The number of DER encoded bytes which were decoded.
+     */
+    public long getBytesDecoded() {
+        return this.bytesDecoded;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadReport [totalTime=" + this.totalTime + ", readTime=" + this.readTime + ", scanTime="
+                + this.scanTime + ", certificateTime=" + this.certificateTime + ", keyTime=" + this.keyTime
+                + ", entries=" + this.entries + ", sources=" + this.sources + ", certificates=" + this.certificates
+                + ", keys=" + this.keys + ", bytesRead=" + this.bytesRead + ", bytesDecoded=" + this.bytesDecoded
+                + "]";
+    }
+
+}
@@ -0,0 +1,478 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only map of certificate entries, keeping all aliases and DER encoded certificates in a single off-heap
+ * buffer.
+ * <p>
+ * Large CA bundles contain a lot of certificates, which are rarely used. Keeping an
+ * {@link AbstractPemKeyStore.Entry}, and a byte array, per certificate on the heap costs object headers, and makes the
+ * garbage collector trace all of them, for as long as the key store is in use. Instead, this map only keeps a few
+ * primitive arrays on the heap: the location of each alias and certificate in the buffer, and open-addressing hash
+ * tables from aliases, and from certificates, to entries.
+ * </p>
+ * <p>
+ * Entries are created when they are accessed, decoding the certificate when it is requested. The most recently used
+ * entries are kept in a small cache, so that repeated access to the same certificate doesn't decode it again.
+ * </p>
+ */
+final class PackedEntries extends AbstractMap<String, AbstractPemKeyStore.Entry> {
+
+    private static final int CACHE_SIZE = 64;
+
+    // the layout of a record: alias hash, alias offset, alias length,
+    // content hash, content offset, content length (negative for an entry without content)
+
+    private static final int RECORD_SIZE = 6;
+    private static final int ALIAS_HASH = 0;
+    private static final int ALIAS_OFFSET = 1;
+    private static final int ALIAS_LENGTH = 2;
+    private static final int CONTENT_HASH = 3;
+    private static final int CONTENT_OFFSET = 4;
+    private static final int CONTENT_LENGTH = 5;
+
+    private final ByteBuffer data;
+    private final int[] records;
+    private final int size;
+    private final CertificateInterner interner;
+
+    /**
+     * The hash table of the aliases, holding the index of the record plus one, or zero for an empty slot.
+     */
+    private final int[] aliasTable;
+
+    /**
+     * The hash table of the certificates, in the same form as the table of the aliases.
+     */
+    private final int[] contentTable;
+
+    /**
+     * Recently used entries, in the slot of the index of their record.
+     * <p>
+     * Access is not synchronized. Slots only hold immutable instances, so a racing thread either sees a complete
+     * instance, or creates its own one.
+     * </p>
+     */
+    private final CachedEntry[] cache;
+
+    private Set<String> keySet;
+    private Set<Map.Entry<String, AbstractPemKeyStore.Entry>> entrySet;
+
+    private PackedEntries(final ByteBuffer data, final int[] records, final int size,
+            final CertificateInterner interner) {
+        this.data = data;
+        this.records = records;
+        this.size = size;
+        this.interner = interner;
+        this.aliasTable = new int[tableSize(size)];
+        this.contentTable = new int[tableSize(size)];
+        this.cache = new CachedEntry[Math.min(CACHE_SIZE, tableSize(size))];
+
+        final int mask = this.aliasTable.length - 1;
+        for (int i = 0; i < size; i++) {
+            final int record = i * RECORD_SIZE;
+
+            int slot = spread(records[record + ALIAS_HASH]) & mask;
+            while (this.aliasTable[slot] != 0) {
+                if (aliasEquals(this.aliasTable[slot] - 1, i)) {
+                    throw new IllegalArgumentException("Duplicate alias: " + alias(i));
+                }
+                slot = (slot + 1) & mask;
+            }
+            this.aliasTable[slot] = i + 1;
+
+            if (records[record + CONTENT_LENGTH] >= 0) {
+                slot = spread(records[record + CONTENT_HASH]) & mask;
+                while (this.contentTable[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                this.contentTable[slot] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Get a table size, keeping the load factor at or below 0.5.
+     */
+    private static int tableSize(final int size) {
+        return Math.max(2, Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1);
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int contentHash(final byte[] content, final int length) {
+        int result = 1;
+        for (int i = 0; i < length; i++) {
+            result = 31 * result + content[i];
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return key instanceof String && indexOf((String) key) >= 0;
+    }
+
+    @Override
+    public AbstractPemKeyStore.Entry get(final Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        final int index = indexOf((String) key);
+        return index >= 0 ? entry(index) : null;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        if (this.keySet == null) {
+            this.keySet = new AbstractSet<String>() {
+
+                @Override
+                public Iterator<String> iterator() {
+                    return new RecordIterator<String>() {
+
+                        @Override
+                        String get(final int index) {
+                            return alias(index);
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(final Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public int size() {
+                    return PackedEntries.this.size;
+                }
+            };
+        }
+        return this.keySet;
+    }
+
+    @Override
+    public Set<Map.Entry<String, AbstractPemKeyStore.Entry>> entrySet() {
+        if (this.entrySet == null) {
+            this.entrySet = new AbstractSet<Map.Entry<String, AbstractPemKeyStore.Entry>>() {
+
+                @Override
+                public Iterator<Map.Entry<String, AbstractPemKeyStore.Entry>> iterator() {
+                    return new RecordIterator<Map.Entry<String, AbstractPemKeyStore.Entry>>() {
+
+                        @Override
+                        Map.Entry<String, AbstractPemKeyStore.Entry> get(final int index) {
+                            return new SimpleImmutableEntry<>(alias(index), entry(index));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return PackedEntries.this.size;
+                }
+            };
+        }
+        return this.entrySet;
+    }
+
+    /**
+     * Get the number of bytes the buffer holds.
+     */
+    int getDataSize() {
+        return this.data.capacity();
+    }
+
+    /**
+     * Find the alias of a certificate entry.
+     * <p>
+     * The certificate is compared with the encoded certificates in the buffer, without decoding or copying them. If
+     * multiple entries have the same certificate, the alias of the first one is reported, like
+     * {@link CertificateIndex} does.
+     * </p>
+     *
+     * @param certificate the certificate to look for
+     * @return the alias, or {@code null} if no entry has this certificate
+     */
+    String getCertificateAlias(final Certificate certificate) {
+        final byte[] encoded;
+        try {
+            encoded = certificate.getEncoded();
+        } catch (final CertificateEncodingException e) {
+            return null;
+        }
+
+        final int hash = contentHash(encoded, encoded.length);
+
+        int result = -1;
+        final int mask = this.contentTable.length - 1;
+        for (int slot = spread(hash) & mask;; slot = (slot + 1) & mask) {
+            final int index = this.contentTable[slot] - 1;
+            if (index < 0) {
+                break;
+            }
+            if ((result < 0 || index < result) && this.records[index * RECORD_SIZE + CONTENT_HASH] == hash
+                    && regionEquals(index * RECORD_SIZE + CONTENT_OFFSET, encoded)) {
+                result = index;
+            }
+        }
+
+        return result >= 0 ? alias(result) : null;
+    }
+
+    private int indexOf(final String alias) {
+        final byte[] bytes = alias.getBytes(StandardCharsets.UTF_8);
+        final int hash = alias.hashCode();
+
+        final int mask = this.aliasTable.length - 1;
+        for (int slot = spread(hash) & mask;; slot = (slot + 1) & mask) {
+            final int index = this.aliasTable[slot] - 1;
+            if (index < 0) {
+                return -1;
+            }
+            if (this.records[index * RECORD_SIZE + ALIAS_HASH] == hash
+                    && regionEquals(index * RECORD_SIZE + ALIAS_OFFSET, bytes)) {
+                return index;
+            }
+        }
+    }
+
+    /**
+     * Compare a range of the buffer with an array.
+     *
+     * @param record the position of the offset in the records, followed by the length
+     */
+    private boolean regionEquals(final int record, final byte[] other) {
+        final int offset = this.records[record];
+        final int length = this.records[record + 1];
+        if (length != other.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (this.data.get(offset + i) != other[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean aliasEquals(final int index, final int other) {
+        final int record = index * RECORD_SIZE;
+        final int otherRecord = other * RECORD_SIZE;
+        if (this.records[record + ALIAS_HASH] != this.records[otherRecord + ALIAS_HASH]) {
+            return false;
+        }
+
+        final int offset = this.records[record + ALIAS_OFFSET];
+        final int otherOffset = this.records[otherRecord + ALIAS_OFFSET];
+        final int length = this.records[record + ALIAS_LENGTH];
+        if (length != this.records[otherRecord + ALIAS_LENGTH]) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (this.data.get(offset + i) != this.data.get(otherOffset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String alias(final int index) {
+        return new String(copy(index * RECORD_SIZE + ALIAS_OFFSET), StandardCharsets.UTF_8);
+    }
+
+    private AbstractPemKeyStore.Entry entry(final int index) {
+        if (this.records[index * RECORD_SIZE + CONTENT_LENGTH] < 0) {
+            return new AbstractPemKeyStore.Entry();
+        }
+
+        final int slot = index & (this.cache.length - 1);
+        final CachedEntry cached = this.cache[slot];
+        if (cached != null && cached.index == index) {
+            return cached.entry;
+        }
+
+        // the content is only copied out of the buffer for decoding, the entry doesn't keep it
+
+        final CertificateInterner interner = this.interner;
+        final AbstractPemKeyStore.Entry result = AbstractPemKeyStore.Entry.decoding(null, Lazy.decode(() -> {
+            final Certificate[] chain = new X509Certificate[1];
+            chain[0] = PemReader.decodeCertificate(copy(index * RECORD_SIZE + CONTENT_OFFSET), interner);
+            return chain;
+        }));
+
+        this.cache[slot] = new CachedEntry(index, result);
+        return result;
+    }
+
+    /**
+     * Copy a range of the buffer.
+     *
+     * @param record the position of the offset in the records, followed by the length
+     */
+    private byte[] copy(final int record) {
+        final byte[] result = new byte[this.records[record + 1]];
+        final ByteBuffer view = this.data.duplicate();
+        view.position(this.records[record]);
+        view.get(result);
+        return result;
+    }
+
+    private static final class CachedEntry {
+
+        private final int index;
+        private final AbstractPemKeyStore.Entry entry;
+
+        CachedEntry(final int index, final AbstractPemKeyStore.Entry entry) {
+            this.index = index;
+            this.entry = entry;
+        }
+    }
+
+    private abstract class RecordIterator<T> implements Iterator<T> {
+
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+            return this.next < PackedEntries.this.size;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return get(this.next++);
+        }
+
+        abstract T get(int index);
+    }
+
+    /**
+     * Collects certificates into a new map.
+     * <p>
+     * The buffer is allocated off-heap once, with an upper bound of the required capacity, and never grows. Growing
+     * would need the old and the new buffer at the same time, which for large bundles doubles the direct memory
+     * required while loading. Once all certificates have been added, the map uses a slice of the buffer, without
+     * copying it.
+     * </p>
+     */
+    static final class Builder {
+
+        private ByteBuffer data;
+        private int[] records = new int[16 * RECORD_SIZE];
+        private int size;
+
+        private final CertificateInterner interner = LoadMonitor.current().getInterner();
+
+        /**
+         * Create a new builder.
+         *
+         * @param capacity the maximum number of bytes of all aliases and certificates
+         * @throws IllegalArgumentException if the capacity is too large for a single buffer
+         */
+        Builder(final long capacity) {
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Capacity too large: " + capacity);
+            }
+            this.data = ByteBuffer.allocateDirect((int) Math.max(capacity, 0));
+        }
+
+        /**
+         * Add a certificate entry.
+         *
+         * @param alias the alias, must be unique
+         * @param content the buffer holding the DER encoded certificate
+         * @param length the number of valid bytes in the buffer
+         * @throws IllegalStateException if the capacity is exceeded
+         */
+        void add(final String alias, final byte[] content, final int length) {
+            addRecord(alias, content, length);
+        }
+
+        /**
+         * Add an entry without a certificate.
+         *
+         * @param alias the alias, must be unique
+         * @throws IllegalStateException if the capacity is exceeded
+         */
+        void addEmpty(final String alias) {
+            addRecord(alias, null, -1);
+        }
+
+        private void addRecord(final String alias, final byte[] content, final int length) {
+            final byte[] aliasBytes = alias.getBytes(StandardCharsets.UTF_8);
+
+            ensureCapacity(aliasBytes.length + Math.max(0, length));
+
+            if ((this.size + 1) * RECORD_SIZE > this.records.length) {
+                this.records = Arrays.copyOf(this.records, this.records.length * 2);
+            }
+
+            final int record = this.size * RECORD_SIZE;
+            this.records[record + ALIAS_HASH] = alias.hashCode();
+            this.records[record + ALIAS_OFFSET] = this.data.position();
+            this.records[record + ALIAS_LENGTH] = aliasBytes.length;
+            this.data.put(aliasBytes);
+            this.records[record + CONTENT_OFFSET] = this.data.position();
+            this.records[record + CONTENT_LENGTH] = length;
+            if (content != null) {
+                this.records[record + CONTENT_HASH] = contentHash(content, length);
+                this.data.put(content, 0, length);
+            }
+
+            this.size++;
+        }
+
+        private void ensureCapacity(final int additional) {
+            if (additional > this.data.remaining()) {
+                throw new IllegalStateException("Capacity exceeded: " + this.data.capacity());
+            }
+        }
+
+        /**
+         * Build the map.
+         *
+         * @throws IllegalArgumentException if aliases are not unique
+         */
+        PackedEntries build() {
+            this.data.flip();
+            final ByteBuffer data = this.data.slice();
+            this.data = null;
+            return new PackedEntries(data.asReadOnlyBuffer(), Arrays.copyOf(this.records, this.size * RECORD_SIZE),
+                    this.size, this.interner);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs load tasks in parallel, returning their results in the order of the tasks.
+ * <p>
+ * The {@link LoadMonitor} of the calling thread is bound to the threads running the tasks. If any task fails, the
+ * remaining tasks are cancelled, and the failure of the first failed task, in the order of the tasks, is thrown.
+ * </p>
+ */
+final class ParallelLoader {
+
+    private static final Logger logger = Logger.getLogger(ParallelLoader.class.getName());
+
+    private static final int MAX_DEFAULT_THREADS = 8;
+
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+    /**
+     * A task loading a single result.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface Task<T> {
+        T load() throws CertificateException, IOException;
+    }
+
+    private ParallelLoader() {
+    }
+
+    private static Method findVirtualThreadExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (final NoSuchMethodException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the default number of threads for loading.
+     */
+    static int defaultThreads() {
+        return Math.min(Runtime.getRuntime().availableProcessors(), MAX_DEFAULT_THREADS);
+    }
+
+    /**
+     * Parse the number of threads from a configuration property.
+     *
+     * @param name the name of the property, for reporting errors
+     * @param value the value of the property
+     * @return the number of threads, always positive
+     * @throws IOException if the value is not a positive number
+     */
+    static int parseThreads(final String name, final String value) throws IOException {
+        try {
+            final int result = Integer.parseInt(value.trim());
+            if (result > 0) {
+                return result;
+            }
+        } catch (final NumberFormatException e) {
+            // fall through
+        }
+        throw new IOException(String.format("Invalid value for '%s', must be a positive number: %s", name, value));
+    }
+
+    /**
+     * Check if virtual threads are available.
+     */
+    static boolean isVirtualThreadsAvailable() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * Run tasks on a temporary pool of platform threads.
+     *
+     * @param threads the maximum number of threads, if less than two, the tasks run on the calling thread
+     */
+    static <T> List<T> run(final List<Task<T>> tasks, final int threads) throws CertificateException, IOException {
+        if (tasks.size() <= 1 || threads <= 1) {
+            return run(tasks, Runnable::run);
+        }
+
+        final ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), new Threads());
+        try {
+            return run(tasks, pool);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Run tasks on virtual threads, one thread per task.
+     * <p>
+     * This is intended for tasks which mostly wait for I/O. If virtual threads are not available, the tasks run on a
+     * temporary pool of platform threads, with the default number of threads.
+     * </p>
+     */
+    static <T> List<T> runVirtual(final List<Task<T>> tasks) throws CertificateException, IOException {
+        if (tasks.size() <= 1) {
+            return run(tasks, Runnable::run);
+        }
+
+        final ExecutorService executor = newVirtualThreadExecutor();
+        if (executor == null) {
+            return run(tasks, defaultThreads());
+        }
+
+        try {
+            return run(tasks, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+        } catch (final IllegalAccessException | InvocationTargetException | RuntimeException e) {
+            logger.log(Level.FINE, "Failed to create virtual thread executor", e);
+            return null;
+        }
+    }
+
+    /**
+     * Run tasks on an executor.
+     *
+     * @return the results, in the order of the tasks
+     */
+    static <T> List<T> run(final List<Task<T>> tasks, final Executor executor)
+            throws CertificateException, IOException {
+
+        final LoadMonitor monitor = LoadMonitor.current();
+
+        final List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (final Task<T> task : tasks) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                final LoadMonitor previous = monitor.bind();
+                try {
+                    return task.load();
+                } catch (final CertificateException | IOException e) {
+                    throw new CompletionException(e);
+                } finally {
+                    LoadMonitor.restore(previous);
+                }
+            }, executor));
+        }
+
+        final List<T> result = new ArrayList<>(tasks.size());
+
+        for (final CompletableFuture<T> future : futures) {
+            try {
+                result.add(future.join());
+            } catch (final CompletionException e) {
+                futures.forEach(f -> f.cancel(false));
+                final Throwable cause = e.getCause();
+                if (cause instanceof CertificateException) {
+                    throw (CertificateException) cause;
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw e;
+            }
+        }
+
+        return result;
+    }
+
+    private static final class Threads implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r, "pem-keystore-loader-" + this.counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -13,7 +13,11 @@ package de.dentrassi.crypto.pem;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 public final class PemBundleKeyStore {
@@ -28,6 +32,21 @@ public final class PemBundleKeyStore {
             return PemUtils.loadFrom(stream, false);
         }
 
+        /**
+         * Load the entries from a file.
+         * <p>
+         * When decoding lazily, and without a snapshot, the certificates are kept off-heap, see
+         * {@link PackedEntries}.
+         * </p>
+         */
+        @Override
+        protected Map<String, Entry> load(final PemLoadParameter parameter) throws CertificateException, IOException {
+            if (parameter.isLazy() && parameter.getSnapshot() == null) {
+                return PemUtils.loadPacked(parameter);
+            }
+            return PemUtils.loadFrom(parameter, false);
+        }
+
     }
 
     public static final class Mutable extends AbstractMutablePemKeyStore {
@@ -37,6 +56,72 @@ public final class PemBundleKeyStore {
             return PemUtils.loadFrom(stream, false);
         }
 
+        @Override
+        protected Map<String, Entry> load(final PemLoadParameter parameter) throws CertificateException, IOException {
+            return PemUtils.loadFrom(parameter, false);
+        }
+
+        /**
+         * Loading numbers the certificates in the order of the input, and puts the key into the entry {@code pem}. So
+         * only certificate entries numbered the same way can be stored, in the order of their number, followed by the
+         * entry {@code pem}, if it has no certificates.
+         */
+        @Override
+        protected List<String> getStoreOrder(final Map<String, Entry> entries) throws IOException {
+            final Entry key = entries.get("pem");
+            final int certificates = key != null ? entries.size() - 1 : entries.size();
+
+            final String[] result = new String[certificates];
+
+            for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+                final String alias = entry.getKey();
+                if (alias.equals("pem")) {
+                    if (entry.getValue().isCertificate()) {
+                        throw new IOException(
+                                String.format("Unable to store entry '%s', it must not have certificates", alias));
+                    }
+                    continue;
+                }
+
+                final int index = parseIndex(alias);
+                if (index < 0 || index >= certificates) {
+                    throw new IOException(String.format(
+                            "Unable to store entry '%s', aliases must be numbered from 'pem-0' to 'pem-%s'", alias,
+                            certificates - 1));
+                }
+                final Certificate[] chain = entry.getValue().getCertificateChain();
+                if (entry.getValue().isKey() || chain == null || chain.length != 1) {
+                    throw new IOException(
+                            String.format("Unable to store entry '%s', it must only have a single certificate", alias));
+                }
+                result[index] = alias;
+            }
+
+            final List<String> order = new ArrayList<>(entries.size());
+            Collections.addAll(order, result);
+            if (key != null) {
+                order.add("pem");
+            }
+            return order;
+        }
+
+        private static int parseIndex(final String alias) {
+            if (!alias.startsWith("pem-")) {
+                return -1;
+            }
+            final String index = alias.substring("pem-".length());
+            // must be the canonical form, as written when loading
+            if (index.isEmpty() || index.length() > 9 || (index.length() > 1 && index.charAt(0) == '0')) {
+                return -1;
+            }
+            for (int i = 0; i < index.length(); i++) {
+                if (index.charAt(i) < '0' || index.charAt(i) > '9') {
+                    return -1;
+                }
+            }
+            return Integer.parseInt(index);
+        }
+
     }
 
 }
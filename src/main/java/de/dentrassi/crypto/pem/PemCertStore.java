@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.cert.CRL;
+import java.security.cert.CRLSelector;
+import java.security.cert.CertSelector;
+import java.security.cert.CertStoreParameters;
+import java.security.cert.CertStoreSpi;
+import java.security.cert.Certificate;
+import java.security.cert.X509CertSelector;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.security.auth.x500.X500Principal;
+
+/**
+ * A {@link java.security.cert.CertStore} implementation, backed by the certificates of a PEM key store.
+ * <p>
+ * Certificates are indexed by subject, issuer, subject key identifier and authority key identifier. Queries using an
+ * {@link X509CertSelector} which set one of those criteria are answered by a lookup in the matching index, instead of
+ * checking all certificates.
+ * </p>
+ *
+ * @see PemCertStoreParameters
+ */
+public class PemCertStore extends CertStoreSpi {
+
+    private static final String SUBJECT_KEY_IDENTIFIER = "2.5.29.14";
+    private static final String AUTHORITY_KEY_IDENTIFIER = "2.5.29.35";
+
+    private final List<X509Certificate> certificates;
+
+    private final Map<X500Principal, List<X509Certificate>> bySubject = new HashMap<>();
+    private final Map<X500Principal, List<X509Certificate>> byIssuer = new HashMap<>();
+    private final Map<KeyIdentifier, List<X509Certificate>> bySubjectKeyIdentifier = new HashMap<>();
+    private final Map<KeyIdentifier, List<X509Certificate>> byAuthorityKeyIdentifier = new HashMap<>();
+
+    public PemCertStore(final CertStoreParameters params) throws InvalidAlgorithmParameterException {
+        super(params);
+
+        if (!(params instanceof PemCertStoreParameters)) {
+            throw new InvalidAlgorithmParameterException(
+                    "Parameters must be of type " + PemCertStoreParameters.class.getName());
+        }
+
+        this.certificates = ((PemCertStoreParameters) params).getCertificates();
+
+        for (final X509Certificate certificate : this.certificates) {
+            add(this.bySubject, certificate.getSubjectX500Principal(), certificate);
+            add(this.byIssuer, certificate.getIssuerX500Principal(), certificate);
+            add(this.bySubjectKeyIdentifier, KeyIdentifier.fromExtension(certificate, SUBJECT_KEY_IDENTIFIER),
+                    certificate);
+            add(this.byAuthorityKeyIdentifier, KeyIdentifier.fromExtension(certificate, AUTHORITY_KEY_IDENTIFIER),
+                    certificate);
+        }
+    }
+
+    private static <K> void add(final Map<K, List<X509Certificate>> index, final K key,
+            final X509Certificate certificate) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new ArrayList<>(1)).add(certificate);
+        }
+    }
+
+    @Override
+    public Collection<? extends Certificate> engineGetCertificates(final CertSelector selector) {
+
+        if (selector == null) {
+            return this.certificates;
+        }
+
+        final Collection<X509Certificate> candidates = candidates(selector);
+
+        final List<Certificate> result = new ArrayList<>();
+        for (final X509Certificate certificate : candidates) {
+            if (selector.match(certificate)) {
+                result.add(certificate);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the smallest set of candidates, based on the selector.
+     */
+    private Collection<X509Certificate> candidates(final CertSelector selector) {
+
+        if (!(selector instanceof X509CertSelector)) {
+            return this.certificates;
+        }
+
+        final X509CertSelector x509 = (X509CertSelector) selector;
+
+        if (x509.getCertificate() != null) {
+            return lookup(this.bySubject, x509.getCertificate().getSubjectX500Principal());
+        }
+        if (x509.getSubject() != null) {
+            return lookup(this.bySubject, x509.getSubject());
+        }
+        if (x509.getSubjectKeyIdentifier() != null) {
+            return lookup(this.bySubjectKeyIdentifier, new KeyIdentifier(x509.getSubjectKeyIdentifier()));
+        }
+        if (x509.getAuthorityKeyIdentifier() != null) {
+            return lookup(this.byAuthorityKeyIdentifier, new KeyIdentifier(x509.getAuthorityKeyIdentifier()));
+        }
+        if (x509.getIssuer() != null) {
+            return lookup(this.byIssuer, x509.getIssuer());
+        }
+
+        return this.certificates;
+    }
+
+    private static <K> Collection<X509Certificate> lookup(final Map<K, List<X509Certificate>> index, final K key) {
+        final List<X509Certificate> result = index.get(key);
+        return result != null ? result : Collections.emptyList();
+    }
+
+    @Override
+    public Collection<? extends CRL> engineGetCRLs(final CRLSelector selector) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * A key identifier, in the form used by {@link X509CertSelector}: the DER encoded extension value, with the
+     * outer octet string removed.
+     */
+    private static final class KeyIdentifier {
+
+        private final byte[] value;
+        private final int hash;
+
+        KeyIdentifier(final byte[] value) {
+            this.value = value;
+            this.hash = Arrays.hashCode(value);
+        }
+
+        static KeyIdentifier fromExtension(final X509Certificate certificate, final String oid) {
+            final byte[] value = unwrapOctetString(certificate.getExtensionValue(oid));
+            return value != null ? new KeyIdentifier(value) : null;
+        }
+
+        /**
+         * Get the content of a DER encoded octet string.
+         *
+         * @return the content, or {@code null} if the value is missing or isn't a valid octet string
+         */
+        private static byte[] unwrapOctetString(final byte[] encoded) {
+            if (encoded == null || encoded.length < 2 || encoded[0] != 0x04) {
+                return null;
+            }
+
+            int length = encoded[1] & 0xFF;
+            int offset = 2;
+            if (length > 0x7F) {
+                final int count = length & 0x7F;
+                if (count > 3 || encoded.length < 2 + count) {
+                    return null;
+                }
+                length = 0;
+                for (int i = 0; i < count; i++) {
+                    length = (length << 8) | (encoded[offset++] & 0xFF);
+                }
+            }
+
+            if (offset + length != encoded.length) {
+                return null;
+            }
+
+            return Arrays.copyOfRange(encoded, offset, encoded.length);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof KeyIdentifier)) {
+                return false;
+            }
+            return Arrays.equals(this.value, ((KeyIdentifier) obj).value);
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.cert.CertStoreParameters;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Parameters for the {@code PEM} {@link java.security.cert.CertStore}.
+ * <p>
+ * The parameters capture the X.509 certificates of a key store, typically a {@code PEMCA} key store, at the time the
+ * parameters are created.
+ * </p>
+ */
+public class PemCertStoreParameters implements CertStoreParameters {
+
+    private final List<X509Certificate> certificates;
+
+    /**
+     * Create new parameters from the certificates of a key store.
+     * <p>
+     * All certificates of each entry's certificate chain are included.
+     * </p>
+     *
+     * @param keyStore the key store to take the certificates from, must be loaded
+     * @throws KeyStoreException if reading from the key store fails
+     */
+    public PemCertStoreParameters(final KeyStore keyStore) throws KeyStoreException {
+        final List<X509Certificate> certificates = new ArrayList<>(keyStore.size());
+
+        final Enumeration<String> aliases = keyStore.aliases();
+        while (aliases.hasMoreElements()) {
+            final String alias = aliases.nextElement();
+            Certificate[] chain = keyStore.getCertificateChain(alias);
+            if (chain == null) {
+                final Certificate certificate = keyStore.getCertificate(alias);
+                chain = certificate != null ? new Certificate[] { certificate } : new Certificate[0];
+            }
+            for (final Certificate certificate : chain) {
+                if (certificate instanceof X509Certificate) {
+                    certificates.add((X509Certificate) certificate);
+                }
+            }
+        }
+
+        this.certificates = Collections.unmodifiableList(certificates);
+    }
+
+    /**
+     * Create new parameters from a collection of certificates.
+     * <p>
+     * Certificates which are not X.509 certificates will be ignored.
+     * </p>
+     *
+     * @param certificates the certificates
+     */
+    public PemCertStoreParameters(final Collection<? extends Certificate> certificates) {
+        final List<X509Certificate> result = new ArrayList<>(certificates.size());
+        for (final Certificate certificate : certificates) {
+            if (certificate instanceof X509Certificate) {
+                result.add((X509Certificate) certificate);
+            }
+        }
+        this.certificates = Collections.unmodifiableList(result);
+    }
+
+    public List<X509Certificate> getCertificates() {
+        return this.certificates;
+    }
+
+    @Override
+    public Object clone() {
+        try {
+            return super.clone();
+        } catch (final CloneNotSupportedException e) {
+            throw new InternalError(e);
+        }
+    }
+
+}
@@ -23,18 +23,28 @@ public final class PemConfigKeyStore {
 
     public static final class Immutable extends AbstractReadOnlyKeyStore {
 
+        private final ConfigurationLoader loader = new ConfigurationLoader(this);
+
         @Override
         protected Map<String, Entry> load(final InputStream stream) throws CertificateException, IOException {
-            return PemUtils.loadFromConfiguration(stream);
+            return this.loader.load(stream);
+        }
+
+        @Override
+        protected Map<String, Entry> initializeEmpty() {
+            this.loader.stop();
+            return super.initializeEmpty();
         }
 
     }
 
     public static final class Mutable extends AbstractMutablePemKeyStore {
 
+        private final ConfigurationLoader loader = new ConfigurationLoader(this);
+
         @Override
         protected Map<String, Entry> load(final InputStream stream) throws CertificateException, IOException {
-            return PemUtils.loadFromConfiguration(stream);
+            return this.loader.load(stream);
         }
 
     }
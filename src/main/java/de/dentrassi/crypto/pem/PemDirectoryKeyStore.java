@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.util.Map;
+
+/**
+ * A key store, loading all pairs of certificate and key files of a directory.
+ * <p>
+ * The key store can be loaded using a {@link PemLoadParameter} pointing to the directory, or from a configuration
+ * file, with the property {@code directory} pointing to the directory, and the optional property {@code threads}
+ * limiting the number of files read in parallel.
+ * </p>
+ *
+ * @see DirectoryLoader
+ */
+public final class PemDirectoryKeyStore {
+
+    private PemDirectoryKeyStore() {
+    }
+
+    public static final class Immutable extends AbstractReadOnlyKeyStore {
+
+        @Override
+        protected Map<String, Entry> load(final InputStream stream) throws CertificateException, IOException {
+            return DirectoryLoader.load(stream);
+        }
+
+        @Override
+        protected Map<String, Entry> load(final PemLoadParameter parameter)
+                throws IOException, NoSuchAlgorithmException, CertificateException {
+            if (Files.isDirectory(parameter.getPath())) {
+                return DirectoryLoader.load(parameter.getPath(), parameter.getExecutor());
+            }
+            return super.load(parameter);
+        }
+
+    }
+
+    public static final class Mutable extends AbstractMutablePemKeyStore {
+
+        @Override
+        protected Map<String, Entry> load(final InputStream stream) throws CertificateException, IOException {
+            return DirectoryLoader.load(stream);
+        }
+
+        @Override
+        protected Map<String, Entry> load(final PemLoadParameter parameter)
+                throws IOException, NoSuchAlgorithmException, CertificateException {
+            if (Files.isDirectory(parameter.getPath())) {
+                return DirectoryLoader.load(parameter.getPath(), parameter.getExecutor());
+            }
+            return super.load(parameter);
+        }
+
+    }
+
+}
@@ -0,0 +1,489 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.UnrecoverableKeyException;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.net.ssl.ExtendedSSLSession;
+import javax.net.ssl.SNIHostName;
+import javax.net.ssl.SNIServerName;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.security.auth.x500.X500Principal;
+
+/**
+ * A key manager, using an index of the key entries of a key store.
+ * <p>
+ * When choosing a server alias, the host name requested by the client using SNI is looked up in an index of the host
+ * names of the entries. If none of the entries matches the host name, an alias is chosen as if there was no host name.
+ * </p>
+ * <p>
+ * When the entries of the key store change, the index is re-built by a single thread, while other threads keep using
+ * the previous index, see {@link KeyStoreVersion}.
+ * </p>
+ *
+ * @see PemKeyManagerFactory
+ * @see HostnameIndex
+ */
+final class PemKeyManager extends X509ExtendedKeyManager {
+
+    private static final Logger logger = Logger.getLogger(PemKeyManager.class.getName());
+
+    private final KeyStore keyStore;
+    private final char[] password;
+    private final KeyStoreVersion version;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Index index;
+
+    PemKeyManager(final KeyStore keyStore, final char[] password)
+            throws KeyStoreException, NoSuchAlgorithmException, UnrecoverableKeyException {
+        this.keyStore = keyStore;
+        this.password = password != null ? password.clone() : null;
+        this.version = new KeyStoreVersion(keyStore);
+        this.index = Index.build(keyStore, this.password, this.version.get());
+    }
+
+    /**
+     * Get the current index, re-building it if the key store was modified.
+     * <p>
+     * Only one thread re-builds the index. Other threads keep using the previous index in the meantime.
+     * </p>
+     */
+    private Index index() {
+        final Index index = this.index;
+
+        // record the version before building, so that we don't miss modifications happening while building
+
+        final long version = this.version.get();
+        if (index.version == version || !this.refreshLock.tryLock()) {
+            return index;
+        }
+
+        try {
+            final Index current = this.index;
+            if (current.version == version) {
+                // another thread was faster
+                return current;
+            }
+
+            Index result;
+            try {
+                result = Index.build(this.keyStore, this.password, version);
+            } catch (final GeneralSecurityException e) {
+                logger.log(Level.WARNING, "Failed to refresh key manager, keeping previous entries", e);
+                result = current.withVersion(version);
+            }
+            this.index = result;
+            return result;
+        } finally {
+            this.refreshLock.unlock();
+        }
+    }
+
+    @Override
+    public String[] getClientAliases(final String keyType, final Principal[] issuers) {
+        return toArray(index().find(keyType, issuers));
+    }
+
+    @Override
+    public String chooseClientAlias(final String[] keyTypes, final Principal[] issuers, final Socket socket) {
+        final Index index = index();
+        for (final String keyType : keyTypes) {
+            final String alias = index.choose(index.find(keyType, issuers));
+            if (alias != null) {
+                return alias;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String chooseEngineClientAlias(final String[] keyTypes, final Principal[] issuers,
+            final SSLEngine engine) {
+        return chooseClientAlias(keyTypes, issuers, null);
+    }
+
+    @Override
+    public String[] getServerAliases(final String keyType, final Principal[] issuers) {
+        return toArray(index().find(keyType, issuers));
+    }
+
+    @Override
+    public String chooseServerAlias(final String keyType, final Principal[] issuers, final Socket socket) {
+        final SSLSession session = socket instanceof SSLSocket ? ((SSLSocket) socket).getHandshakeSession() : null;
+        return chooseServerAlias(keyType, issuers, getRequestedHostname(session));
+    }
+
+    @Override
+    public String chooseEngineServerAlias(final String keyType, final Principal[] issuers, final SSLEngine engine) {
+        final SSLSession session = engine != null ? engine.getHandshakeSession() : null;
+        return chooseServerAlias(keyType, issuers, getRequestedHostname(session));
+    }
+
+    /**
+     * Choose a server alias, preferring entries matching the host name.
+     *
+     * @param hostname the host name requested by the client, may be {@code null}
+     */
+    String chooseServerAlias(final String keyType, final Principal[] issuers, final String hostname) {
+        final Index index = index();
+
+        if (hostname != null) {
+            final String alias = index.choose(index.findByHostname(hostname, keyType, issuers));
+            if (alias != null) {
+                return alias;
+            }
+        }
+
+        return index.choose(index.find(keyType, issuers));
+    }
+
+    private static String getRequestedHostname(final SSLSession session) {
+        if (!(session instanceof ExtendedSSLSession)) {
+            return null;
+        }
+        for (final SNIServerName name : ((ExtendedSSLSession) session).getRequestedServerNames()) {
+            if (name instanceof SNIHostName) {
+                return ((SNIHostName) name).getAsciiName();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public X509Certificate[] getCertificateChain(final String alias) {
+        final Credentials credentials = index().credentials.get(alias);
+        return credentials != null ? credentials.chain.clone() : null;
+    }
+
+    @Override
+    public PrivateKey getPrivateKey(final String alias) {
+        final Credentials credentials = index().credentials.get(alias);
+        return credentials != null ? credentials.key : null;
+    }
+
+    private static String[] toArray(final List<String> aliases) {
+        return aliases.isEmpty() ? null : aliases.toArray(new String[aliases.size()]);
+    }
+
+    private static final class Credentials {
+
+        private final PrivateKey key;
+        private final X509Certificate[] chain;
+        private final String keyType;
+
+        Credentials(final PrivateKey key, final X509Certificate[] chain) {
+            this.key = key;
+            this.chain = chain;
+            this.keyType = chain[0].getPublicKey().getAlgorithm();
+        }
+
+        boolean isIssuedBy(final Set<X500Principal> issuers) {
+            for (final X509Certificate certificate : this.chain) {
+                if (issuers.contains(certificate.getIssuerX500Principal())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A key type, as requested by JSSE.
+     * <p>
+     * The key type is either the key algorithm, or the key algorithm and the signature algorithm of the certificate,
+     * separated by an underscore, e.g. {@code EC_RSA}.
+     * </p>
+     */
+    private static final class KeyType {
+
+        private final String keyAlgorithm;
+        private final String signatureType;
+
+        KeyType(final String keyType) {
+            final int idx = keyType.indexOf('_');
+            if (idx > 0) {
+                this.keyAlgorithm = keyType.substring(0, idx);
+                this.signatureType = "WITH" + keyType.substring(idx + 1).toUpperCase(Locale.ENGLISH);
+            } else {
+                this.keyAlgorithm = keyType;
+                this.signatureType = null;
+            }
+        }
+
+        boolean matchesSignature(final Credentials credentials) {
+            return this.signatureType == null
+                    || credentials.chain[0].getSigAlgName().toUpperCase(Locale.ENGLISH).contains(this.signatureType);
+        }
+    }
+
+    /**
+     * An index of the key entries of a key store.
+     * <p>
+     * All lists of aliases are sorted, so that choosing an alias is deterministic.
+     * </p>
+     */
+    private static final class Index {
+
+        private final long version;
+
+        private final Map<String, Credentials> credentials;
+
+        /**
+         * Aliases by key algorithm.
+         */
+        private final Map<String, List<String>> byKeyType;
+
+        /**
+         * Aliases by key algorithm and issuer of any certificate of the chain.
+         */
+        private final Map<String, Map<X500Principal, List<String>>> byIssuer;
+
+        /**
+         * Aliases by the host names of the end entity certificate.
+         */
+        private final HostnameIndex byHostname;
+
+        private Index(final long version, final Map<String, Credentials> credentials,
+                final Map<String, List<String>> byKeyType,
+                final Map<String, Map<X500Principal, List<String>>> byIssuer, final HostnameIndex byHostname) {
+            this.version = version;
+            this.credentials = credentials;
+            this.byKeyType = byKeyType;
+            this.byIssuer = byIssuer;
+            this.byHostname = byHostname;
+        }
+
+        Index withVersion(final long version) {
+            return new Index(version, this.credentials, this.byKeyType, this.byIssuer, this.byHostname);
+        }
+
+        static Index build(final KeyStore keyStore, final char[] password, final long version)
+                throws KeyStoreException, NoSuchAlgorithmException, UnrecoverableKeyException {
+
+            final Map<String, Credentials> credentials = new HashMap<>();
+            final Map<String, List<String>> byKeyType = new HashMap<>();
+            final Map<String, Map<X500Principal, List<String>>> byIssuer = new HashMap<>();
+            final HostnameIndex byHostname = new HostnameIndex();
+
+            if (keyStore == null) {
+                return new Index(version, credentials, byKeyType, byIssuer, byHostname);
+            }
+
+            final List<String> aliases = Collections.list(keyStore.aliases());
+            Collections.sort(aliases);
+
+            for (final String alias : aliases) {
+                if (!keyStore.isKeyEntry(alias)) {
+                    continue;
+                }
+
+                final Key key = keyStore.getKey(alias, password);
+                final X509Certificate[] chain = toX509(keyStore.getCertificateChain(alias));
+                if (!(key instanceof PrivateKey) || chain == null) {
+                    continue;
+                }
+
+                final Credentials entry = new Credentials((PrivateKey) key, chain);
+                credentials.put(alias, entry);
+                byHostname.add(alias, chain[0]);
+
+                final String keyType = entry.keyType;
+                byKeyType.computeIfAbsent(keyType, k -> new ArrayList<>()).add(alias);
+
+                final Map<X500Principal, List<String>> issuers = byIssuer.computeIfAbsent(keyType,
+                        k -> new HashMap<>());
+                for (final X509Certificate certificate : chain) {
+                    final List<String> list = issuers.computeIfAbsent(certificate.getIssuerX500Principal(),
+                            k -> new ArrayList<>(1));
+                    // aliases are processed in order, so a duplicate can only be the last one
+                    if (list.isEmpty() || !list.get(list.size() - 1).equals(alias)) {
+                        list.add(alias);
+                    }
+                }
+            }
+
+            return new Index(version, credentials, byKeyType, byIssuer, byHostname);
+        }
+
+        private static X509Certificate[] toX509(final Certificate[] chain) {
+            if (chain == null || chain.length == 0) {
+                return null;
+            }
+            final X509Certificate[] result = new X509Certificate[chain.length];
+            for (int i = 0; i < chain.length; i++) {
+                if (!(chain[i] instanceof X509Certificate)) {
+                    return null;
+                }
+                result[i] = (X509Certificate) chain[i];
+            }
+            return result;
+        }
+
+        /**
+         * Find all aliases matching the key type and issuers.
+         *
+         * @param keyType the key type, either the key algorithm, or the key algorithm and the signature algorithm of
+         *            the certificate, separated by an underscore, e.g. {@code EC_RSA}
+         * @param issuers the accepted issuers, {@code null} or empty to accept all
+         * @return the sorted list of matching aliases, never {@code null}
+         */
+        List<String> find(final String keyType, final Principal[] issuers) {
+            if (keyType == null) {
+                return Collections.emptyList();
+            }
+
+            final KeyType type = new KeyType(keyType);
+
+            List<String> candidates;
+            if (issuers == null || issuers.length == 0) {
+                candidates = this.byKeyType.getOrDefault(type.keyAlgorithm, Collections.emptyList());
+            } else {
+                candidates = findByIssuers(type.keyAlgorithm, issuers);
+            }
+
+            if (type.signatureType != null && !candidates.isEmpty()) {
+                final List<String> result = new ArrayList<>(candidates.size());
+                for (final String alias : candidates) {
+                    if (type.matchesSignature(this.credentials.get(alias))) {
+                        result.add(alias);
+                    }
+                }
+                candidates = result;
+            }
+
+            return candidates;
+        }
+
+        /**
+         * Find all aliases matching the host name, key type and issuers.
+         *
+         * @return the list of matching aliases, exact host name matches first, never {@code null}
+         */
+        List<String> findByHostname(final String hostname, final String keyType, final Principal[] issuers) {
+            final List<String> candidates = this.byHostname.find(hostname);
+            if (candidates.isEmpty() || keyType == null) {
+                return Collections.emptyList();
+            }
+
+            final KeyType type = new KeyType(keyType);
+
+            Set<X500Principal> accepted = null;
+            if (issuers != null && issuers.length > 0) {
+                accepted = new HashSet<>(issuers.length);
+                for (final Principal issuer : issuers) {
+                    accepted.add(toX500(issuer));
+                }
+            }
+
+            final List<String> result = new ArrayList<>(candidates.size());
+            for (final String alias : candidates) {
+                final Credentials credentials = this.credentials.get(alias);
+                if (type.keyAlgorithm.equals(credentials.keyType) && type.matchesSignature(credentials)
+                        && (accepted == null || credentials.isIssuedBy(accepted))) {
+                    result.add(alias);
+                }
+            }
+            return result;
+        }
+
+        private List<String> findByIssuers(final String keyAlgorithm, final Principal[] issuers) {
+            final Map<X500Principal, List<String>> index = this.byIssuer.get(keyAlgorithm);
+            if (index == null) {
+                return Collections.emptyList();
+            }
+
+            List<String> single = null;
+            TreeSet<String> merged = null;
+
+            for (final Principal issuer : issuers) {
+                final List<String> aliases = index.get(toX500(issuer));
+                if (aliases == null) {
+                    continue;
+                }
+                if (single == null) {
+                    single = aliases;
+                } else {
+                    if (merged == null) {
+                        merged = new TreeSet<>(single);
+                    }
+                    merged.addAll(aliases);
+                }
+            }
+
+            if (merged != null) {
+                return new ArrayList<>(merged);
+            }
+            return single != null ? single : Collections.emptyList();
+        }
+
+        private static X500Principal toX500(final Principal principal) {
+            if (principal instanceof X500Principal) {
+                return (X500Principal) principal;
+            }
+            try {
+                return new X500Principal(principal.getName());
+            } catch (final IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Choose an alias from the candidates, preferring entries which are currently valid.
+         *
+         * @return the chosen alias, or {@code null} if there are no candidates
+         */
+        String choose(final List<String> candidates) {
+            if (candidates.isEmpty()) {
+                return null;
+            }
+
+            final Date now = new Date();
+            for (final String alias : candidates) {
+                final X509Certificate certificate = this.credentials.get(alias).chain[0];
+                if (!now.before(certificate.getNotBefore()) && !now.after(certificate.getNotAfter())) {
+                    return alias;
+                }
+            }
+
+            return candidates.get(0);
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableKeyException;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactorySpi;
+import javax.net.ssl.ManagerFactoryParameters;
+
+/**
+ * A {@link javax.net.ssl.KeyManagerFactory}, which indexes the key entries of a key store.
+ * <p>
+ * The JDK key managers check all entries of the key store when choosing an alias for a handshake. This key manager
+ * builds an index of the key entries by key type and issuer when being initialized, so that choosing an alias only
+ * requires a lookup. If the key store is a PEM key store, which gets reloaded or modified, the index will be
+ * rebuilt on the next handshake. Other key stores are checked for changed aliases or creation dates at most once a
+ * second.
+ * </p>
+ * <p>
+ * The factory is registered with the name {@code PEM}, and can be used with any type of key store:
+ * </p>
+ *
+ * <pre>
+ * KeyManagerFactory kmf = KeyManagerFactory.getInstance("PEM", new PemKeyStoreProvider());
+ * kmf.init(keyStore, null);
+ * </pre>
+ */
+public class PemKeyManagerFactory extends KeyManagerFactorySpi {
+
+    private PemKeyManager keyManager;
+
+    @Override
+    protected void engineInit(final KeyStore ks, final char[] password)
+            throws KeyStoreException, NoSuchAlgorithmException, UnrecoverableKeyException {
+        this.keyManager = new PemKeyManager(ks, password);
+    }
+
+    @Override
+    protected void engineInit(final ManagerFactoryParameters spec) throws InvalidAlgorithmParameterException {
+        throw new InvalidAlgorithmParameterException("Unsupported parameters: " + spec);
+    }
+
+    @Override
+    protected KeyManager[] engineGetKeyManagers() {
+        if (this.keyManager == null) {
+            throw new IllegalStateException("KeyManagerFactory is not initialized");
+        }
+        return new KeyManager[] { this.keyManager };
+    }
+
+}
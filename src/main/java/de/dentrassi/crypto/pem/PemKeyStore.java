@@ -15,6 +15,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 public final class PemKeyStore {
@@ -29,6 +31,11 @@ public final class PemKeyStore {
             return PemUtils.loadFrom(stream, true);
         }
 
+        @Override
+        protected Map<String, Entry> load(final PemLoadParameter parameter) throws IOException, NoSuchAlgorithmException, CertificateException {
+            return PemUtils.loadFrom(parameter, true);
+        }
+
     }
 
     public final static class Mutable extends AbstractMutablePemKeyStore {
@@ -38,6 +45,25 @@ public final class PemKeyStore {
             return PemUtils.loadFrom(stream, true);
         }
 
+        @Override
+        protected Map<String, Entry> load(final PemLoadParameter parameter) throws IOException, NoSuchAlgorithmException, CertificateException {
+            return PemUtils.loadFrom(parameter, true);
+        }
+
+        /**
+         * Loading merges all objects into the entry {@code pem}, so only this entry can be stored.
+         */
+        @Override
+        protected List<String> getStoreOrder(final Map<String, Entry> entries) throws IOException {
+            for (final String alias : entries.keySet()) {
+                if (!"pem".equals(alias)) {
+                    throw new IOException(
+                            String.format("Unable to store entry '%s', only the entry 'pem' can be stored", alias));
+                }
+            }
+            return new ArrayList<>(entries.keySet());
+        }
+
     }
 
 }
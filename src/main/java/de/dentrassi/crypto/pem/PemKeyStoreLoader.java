@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.KeyStore;
+import java.security.Provider;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Loads PEM based key stores asynchronously.
+ * <p>
+ * Loading a large key store takes time, which an application may rather spend on other startup work. The loader
+ * runs {@link KeyStore#load(KeyStore.LoadStoreParameter)} on an executor, and completes the returned future with the
+ * loaded key store:
+ * </p>
+ *
+ * <pre>
+ * CompletableFuture&lt;KeyStore&gt; trustStore = PemKeyStoreLoader.loadAsync("PEMCA",
+ *         new PemLoadParameter(Paths.get("/etc/pki/tls/certs/ca-bundle.crt")), executor);
+ * </pre>
+ *
+ * <p>
+ * Progress can be observed using {@link PemLoadParameter#withProgressListener(LoadProgressListener)}. Cancelling
+ * the future aborts loading the next time a source was read, or a PEM object was scanned or decoded.
+ * </p>
+ */
+public final class PemKeyStoreLoader {
+
+    private static final Provider PROVIDER = new PemKeyStoreProvider();
+
+    private PemKeyStoreLoader() {
+    }
+
+    /**
+     * Load a key store asynchronously.
+     *
+     * @param type the type of the key store, e.g. {@code PEMCA}
+     * @param parameter the parameter for loading the key store
+     * @param executor the executor to load on
+     * @return a future, which completes with the loaded key store, or exceptionally if loading failed
+     */
+    public static CompletableFuture<KeyStore> loadAsync(final String type, final PemLoadParameter parameter,
+            final Executor executor) {
+
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(parameter);
+        Objects.requireNonNull(executor);
+
+        final CompletableFuture<KeyStore> result = new CompletableFuture<>();
+        final PemLoadParameter cancellable = parameter.withCancellation(result::isCancelled);
+
+        try {
+            executor.execute(() -> {
+                if (result.isDone()) {
+                    // cancelled before we started
+                    return;
+                }
+                try {
+                    final KeyStore keyStore = KeyStore.getInstance(type, PROVIDER);
+                    keyStore.load(cancellable);
+                    result.complete(keyStore);
+                } catch (final CancellationException e) {
+                    result.cancel(false);
+                } catch (final Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+
+        return result;
+    }
+
+}
@@ -45,5 +45,13 @@ public class PemKeyStoreProvider extends Provider {
         put("KeyStore.PEMCA", "de.dentrassi.crypto.pem.PemBundleKeyStore$Immutable");
         put("KeyStore.PEMCA.MOD", "de.dentrassi.crypto.pem.PemBundleKeyStore$Mutable");
 
+        put("KeyStore.PEMDIR", "de.dentrassi.crypto.pem.PemDirectoryKeyStore$Immutable");
+        put("KeyStore.PEMDIR.MOD", "de.dentrassi.crypto.pem.PemDirectoryKeyStore$Mutable");
+
+        put("CertStore.PEM", "de.dentrassi.crypto.pem.PemCertStore");
+
+        put("KeyManagerFactory.PEM", "de.dentrassi.crypto.pem.PemKeyManagerFactory");
+        put("TrustManagerFactory.PEM", "de.dentrassi.crypto.pem.PemTrustManagerFactory");
+
     }
 }
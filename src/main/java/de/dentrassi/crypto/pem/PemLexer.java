@@ -0,0 +1,533 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A byte oriented lexer for PEM encoded data.
+ * <p>
+ * The lexer scans for {@code -----BEGIN <type>-----} markers and decodes the base64 content up to the matching
+ * {@code -----END <type>-----} marker in a single pass, straight into a re-used content buffer. Line endings (LF and
+ * CRLF), indentation and trailing whitespace are tolerated, as are RFC 1421 style header lines (containing a colon).
+ * </p>
+ * <p>
+ * The content buffer is only valid until the next call to {@link #next()}.
+ * </p>
+ */
+final class PemLexer {
+
+    /**
+     * A source of raw bytes.
+     */
+    interface Source {
+
+        /**
+         * Get the next chunk of data.
+         *
+         * @return the next chunk, or {@code null} if the end of the data was reached
+         */
+        ByteBuffer next() throws IOException;
+    }
+
+    private static final byte[] BEGIN = "-----BEGIN ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END = "-----END ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DASHES = "-----".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int MAP_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private static final int INVALID = -1;
+    private static final int WHITESPACE = -2;
+    private static final int PADDING = -3;
+    private static final int NEWLINE = -4;
+    private static final int COLON = -5;
+
+    private static final int[] DECODE = new int[256];
+
+    static {
+        Arrays.fill(DECODE, INVALID);
+        final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE[alphabet.charAt(i)] = i;
+        }
+        DECODE[' '] = WHITESPACE;
+        DECODE['\t'] = WHITESPACE;
+        DECODE['\r'] = WHITESPACE;
+        DECODE['\f'] = WHITESPACE;
+        DECODE['\n'] = NEWLINE;
+        DECODE['='] = PADDING;
+        DECODE[':'] = COLON;
+    }
+
+    private final Source source;
+    private ByteBuffer pending;
+
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private byte[] scratch;
+
+    private final byte[] line = new byte[256];
+    private int lineLength;
+
+    private byte[] content = new byte[BUFFER_SIZE];
+    private int length;
+    private String type;
+
+    PemLexer(final Source source) {
+        this.source = source;
+    }
+
+    /**
+     * Create a new lexer, reading from an input stream.
+     */
+    static PemLexer fromStream(final InputStream in) {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        return new PemLexer(() -> {
+            final int len = in.read(buffer);
+            if (len < 0) {
+                return null;
+            }
+            return ByteBuffer.wrap(buffer, 0, len);
+        });
+    }
+
+    /**
+     * Create a new lexer, reading from a file channel.
+     * <p>
+     * The file is memory mapped in windows of up to {@value #MAP_WINDOW_SIZE} bytes, so that files larger than the
+     * maximum size of a single mapping are supported as well.
+     * </p>
+     */
+    static PemLexer fromChannel(final FileChannel channel) throws IOException {
+        final long size = channel.size();
+        return new PemLexer(new Source() {
+
+            private long offset;
+
+            @Override
+            public ByteBuffer next() throws IOException {
+                if (this.offset >= size) {
+                    return null;
+                }
+                final long len = Math.min(size - this.offset, MAP_WINDOW_SIZE);
+                final ByteBuffer result = channel.map(FileChannel.MapMode.READ_ONLY, this.offset, len);
+                this.offset += len;
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Create a new lexer, reading from a character stream.
+     * <p>
+     * PEM data is pure ASCII. Characters outside the ASCII range can only occur in explanatory text, and are mapped to
+     * {@code '?'}.
+     * </p>
+     */
+    static PemLexer fromReader(final Reader in) {
+        final char[] chars = new char[BUFFER_SIZE];
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        return new PemLexer(() -> {
+            final int len = in.read(chars);
+            if (len < 0) {
+                return null;
+            }
+            for (int i = 0; i < len; i++) {
+                final char c = chars[i];
+                buffer[i] = c < 0x80 ? (byte) c : (byte) '?';
+            }
+            return ByteBuffer.wrap(buffer, 0, len);
+        });
+    }
+
+    /**
+     * Get the type of the current object, e.g. {@code CERTIFICATE}.
+     */
+    String getType() {
+        return this.type;
+    }
+
+    /**
+     * Get the internal buffer holding the decoded content of the current object.
+     * <p>
+     * Only the first {@link #getLength()} bytes are valid. The buffer will be overwritten by the next call to
+     * {@link #next()}.
+     * </p>
+     */
+    byte[] getContent() {
+        return this.content;
+    }
+
+    /**
+     * Get the length of the decoded content of the current object.
+     */
+    int getLength() {
+        return this.length;
+    }
+
+    /**
+     * Get a copy of the decoded content of the current object.
+     */
+    byte[] copyContent() {
+        return Arrays.copyOf(this.content, this.length);
+    }
+
+    /**
+     * Advance to the next PEM object.
+     *
+     * @return {@code true} if an object was found, {@code false} if the end of the data was reached
+     * @throws IOException if reading fails, or the object is malformed
+     */
+    boolean next() throws IOException {
+        this.type = null;
+        this.length = 0;
+
+        while (true) {
+            if (!readLine()) {
+                return false;
+            }
+            if (startsWith(BEGIN)) {
+                final String type = parseType(BEGIN.length);
+                if (type != null) {
+                    this.type = type;
+                    readContent();
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Read and decode the content of the current object, consuming the end marker.
+     */
+    private void readContent() throws IOException {
+
+        int quantum = 0;
+        int bits = 0;
+        boolean padded = false;
+
+        int lineStart = 0;
+        int quantumStart = 0;
+        int bitsStart = 0;
+        boolean paddedStart = false;
+        boolean atLineStart = true;
+
+        while (true) {
+
+            if (this.position >= this.limit && !fill()) {
+                throw new IOException("Missing end marker for: " + this.type);
+            }
+
+            final int b = this.buffer[this.position++] & 0xFF;
+            final int value = DECODE[b];
+
+            if (atLineStart) {
+                if (b == '-') {
+                    readEnd();
+                    break;
+                }
+                if (value == WHITESPACE || value == NEWLINE) {
+                    continue;
+                }
+                lineStart = this.length;
+                quantumStart = quantum;
+                bitsStart = bits;
+                paddedStart = padded;
+                atLineStart = false;
+            }
+
+            if (value >= 0) {
+                if (padded) {
+                    throw new IOException("Invalid base64 content: data after padding");
+                }
+                quantum = (quantum << 6) | value;
+                bits += 6;
+                if (bits >= 8) {
+                    bits -= 8;
+                    append((byte) (quantum >> bits));
+                    quantum &= (1 << bits) - 1;
+                    if (bits == 0) {
+                        decodeQuantums();
+                    }
+                }
+                continue;
+            }
+
+            switch (value) {
+                case NEWLINE:
+                    atLineStart = true;
+                    break;
+                case WHITESPACE:
+                    break;
+                case PADDING:
+                    padded = true;
+                    break;
+                default:
+                    if (value == COLON) {
+                        skipLine();
+                    } else if (!skipHeaderLine()) {
+                        throw new IOException(String.format("Invalid base64 content: unexpected character 0x%02x", b));
+                    }
+                    // header line, roll back what we decoded from this line so far
+                    this.length = lineStart;
+                    quantum = quantumStart;
+                    bits = bitsStart;
+                    padded = paddedStart;
+                    atLineStart = true;
+                    break;
+            }
+        }
+
+        if (bits >= 6) {
+            throw new IOException("Invalid base64 content: truncated data");
+        }
+    }
+
+    /**
+     * Decode complete groups of four base64 characters, as long as they are available in the current buffer.
+     * <p>
+     * This is the fast path for the content of a line, and stops at the first character which isn't part of the base64
+     * alphabet, leaving it to the caller.
+     * </p>
+     */
+    private void decodeQuantums() {
+        final byte[] buffer = this.buffer;
+        final int limit = this.limit;
+        int position = this.position;
+
+        ensureCapacity((limit - position) / 4 * 3);
+        final byte[] content = this.content;
+        int length = this.length;
+
+        while (position + 4 <= limit) {
+            // a negative (non-alphabet) value in any of the four makes the result negative
+            final int value = DECODE[buffer[position] & 0xFF] << 18
+                    | DECODE[buffer[position + 1] & 0xFF] << 12
+                    | DECODE[buffer[position + 2] & 0xFF] << 6
+                    | DECODE[buffer[position + 3] & 0xFF];
+            if (value < 0) {
+                break;
+            }
+            content[length++] = (byte) (value >> 16);
+            content[length++] = (byte) (value >> 8);
+            content[length++] = (byte) value;
+            position += 4;
+        }
+
+        this.position = position;
+        this.length = length;
+    }
+
+    /**
+     * Read the end marker, the first dash has already been consumed.
+     */
+    private void readEnd() throws IOException {
+        this.line[0] = '-';
+        this.lineLength = 1;
+        readRemainingLine();
+
+        if (!startsWith(END) || !this.type.equals(parseType(END.length))) {
+            throw new IOException("Invalid end marker for: " + this.type);
+        }
+    }
+
+    /**
+     * Parse the object type from the current line, starting after the marker.
+     *
+     * @return the type, or {@code null} if the line is not a valid marker
+     */
+    private String parseType(final int offset) {
+        int end = this.lineLength;
+        while (end > offset && isWhitespace(this.line[end - 1])) {
+            end--;
+        }
+        final int typeEnd = end - DASHES.length;
+        if (typeEnd <= offset) {
+            return null;
+        }
+        for (int i = 0; i < DASHES.length; i++) {
+            if (this.line[typeEnd + i] != '-') {
+                return null;
+            }
+        }
+        for (int i = offset; i < typeEnd; i++) {
+            if (this.line[i] == '-') {
+                return null;
+            }
+        }
+        return new String(this.line, offset, typeEnd - offset, StandardCharsets.US_ASCII);
+    }
+
+    private boolean startsWith(final byte[] prefix) {
+        if (this.lineLength < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (this.line[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read the next line into the line buffer.
+     * <p>
+     * Only the start of the line is kept, marker lines are short. Lines starting with anything but a dash are skipped
+     * without being copied.
+     * </p>
+     *
+     * @return {@code false} if the end of the data was reached
+     */
+    private boolean readLine() throws IOException {
+        this.lineLength = 0;
+
+        final int b = read();
+        if (b < 0) {
+            return false;
+        }
+        if (b == '\n') {
+            return true;
+        }
+        if (b != '-') {
+            skipLine();
+            return true;
+        }
+
+        this.line[this.lineLength++] = (byte) b;
+        readRemainingLine();
+        return true;
+    }
+
+    private void readRemainingLine() throws IOException {
+        int b;
+        while ((b = read()) >= 0 && b != '\n') {
+            if (this.lineLength < this.line.length) {
+                this.line[this.lineLength++] = (byte) b;
+            }
+        }
+    }
+
+    /**
+     * Skip the remainder of a line, which must contain a colon to qualify as header line.
+     *
+     * @return {@code true} if the line contained a colon
+     */
+    private boolean skipHeaderLine() throws IOException {
+        boolean colon = false;
+        int b;
+        while ((b = read()) >= 0 && b != '\n') {
+            colon |= b == ':';
+        }
+        return colon;
+    }
+
+    private void skipLine() throws IOException {
+        do {
+            final byte[] buffer = this.buffer;
+            final int limit = this.limit;
+            for (int i = this.position; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    this.position = i + 1;
+                    return;
+                }
+            }
+            this.position = limit;
+        } while (fill());
+    }
+
+    private void append(final byte b) {
+        ensureCapacity(1);
+        this.content[this.length++] = b;
+    }
+
+    private void ensureCapacity(final int additional) {
+        final int required = this.length + additional;
+        if (required > this.content.length) {
+            this.content = Arrays.copyOf(this.content, Math.max(required, this.content.length * 2));
+        }
+    }
+
+    /**
+     * Read the next raw byte, following the current object.
+     * <p>
+     * This allows reading the text surrounding the PEM objects through the same source.
+     * </p>
+     *
+     * @return the next byte, or {@code -1} if the end of the data was reached
+     */
+    int read() throws IOException {
+        if (this.position < this.limit || fill()) {
+            return this.buffer[this.position++] & 0xFF;
+        }
+        return -1;
+    }
+
+    /**
+     * Check if data is available without reading from the source.
+     */
+    boolean isBuffered() {
+        return this.position < this.limit || this.pending != null && this.pending.hasRemaining();
+    }
+
+    /**
+     * Fetch the next chunk of data from the source.
+     * <p>
+     * Heap buffers are scanned in place, other buffers (e.g. direct or mapped buffers) get copied into a scratch
+     * buffer in chunks.
+     * </p>
+     *
+     * @return {@code false} if the end of the data was reached
+     */
+    private boolean fill() throws IOException {
+        ByteBuffer next = this.pending;
+        while (next == null || !next.hasRemaining()) {
+            next = this.source.next();
+            if (next == null) {
+                this.pending = null;
+                return false;
+            }
+        }
+
+        if (next.hasArray()) {
+            this.buffer = next.array();
+            this.position = next.arrayOffset() + next.position();
+            this.limit = next.arrayOffset() + next.limit();
+            this.pending = null;
+        } else {
+            if (this.scratch == null) {
+                this.scratch = new byte[BUFFER_SIZE];
+            }
+            final int len = Math.min(next.remaining(), this.scratch.length);
+            next.get(this.scratch, 0, len);
+            this.buffer = this.scratch;
+            this.position = 0;
+            this.limit = len;
+            this.pending = next;
+        }
+
+        return true;
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f';
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.KeyStore.ProtectionParameter;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Parameters for loading a PEM based key store from a file.
+ * <p>
+ * Use with {@link KeyStore#load(KeyStore.LoadStoreParameter)}. Compared to loading from an {@link java.io.InputStream},
+ * this allows the key store to access the file directly. The {@code PEM} and {@code PEMCA} key stores will memory map
+ * the file and scan the PEM data without pulling it through the heap first.
+ * </p>
+ */
+public class PemLoadParameter implements KeyStore.LoadStoreParameter {
+
+    private final Path path;
+    private final Executor executor;
+    private final boolean lazy;
+    private final Path snapshot;
+    private final Consumer<LoadReport> reportListener;
+    private final LoadProgressListener progressListener;
+    private final BooleanSupplier cancellation;
+    private final boolean sharedCertificates;
+
+    /**
+     * Create a new load parameter.
+     *
+     * @param path the file to load from
+     */
+    public PemLoadParameter(final Path path) {
+        this(path, null, false, null, null, null, null, false);
+    }
+
+    private PemLoadParameter(final Path path, final Executor executor, final boolean lazy, final Path snapshot,
+            final Consumer<LoadReport> reportListener, final LoadProgressListener progressListener,
+            final BooleanSupplier cancellation, final boolean sharedCertificates) {
+        this.path = Objects.requireNonNull(path);
+        this.executor = executor;
+        this.lazy = lazy;
+        this.snapshot = snapshot;
+        this.reportListener = reportListener;
+        this.progressListener = progressListener;
+        this.cancellation = cancellation;
+        this.sharedCertificates = sharedCertificates;
+    }
+
+    /**
+     * Create a copy of this parameter, which decodes PEM objects in parallel.
+     * <p>
+     * This is supported by the {@code PEM} and {@code PEMCA} key stores. For large CA bundles, decoding the
+     * certificates is the most expensive part of loading the key store, and can be spread over multiple threads, e.g.
+     * by using {@link java.util.concurrent.ForkJoinPool#commonPool()}.
+     * </p>
+     * <p>
+     * The {@code PEMDIR} key store uses the executor for reading and decoding the files of the directory. Without an
+     * executor, it uses a temporary thread pool.
+     * </p>
+     *
+     * @param executor the executor to use for decoding, {@code null} to decode on the loading thread
+     * @return the new parameter instance
+     */
+    public PemLoadParameter withExecutor(final Executor executor) {
+        return new PemLoadParameter(this.path, executor, this.lazy, this.snapshot, this.reportListener,
+                this.progressListener, this.cancellation, this.sharedCertificates);
+    }
+
+    /**
+     * Create a copy of this parameter, which defers decoding of the PEM objects.
+     * <p>
+     * This is supported by the {@code PEM} and {@code PEMCA} key stores. Entries will only keep the encoded form of
+     * keys and certificates, and decode them when they are accessed for the first time. This reduces the load time,
+     * and the memory required, when only a few entries of a large CA bundle will actually be used.
+     * </p>
+     * <p>
+     * As content is no longer decoded when loading, invalid content will not be detected before the entry is
+     * accessed. In this case a {@link java.security.ProviderException} will be thrown.
+     * </p>
+     *
+     * @param lazy {@code true} to decode lazily
+     * @return the new parameter instance
+     */
+    public PemLoadParameter withLazyDecoding(final boolean lazy) {
+        return new PemLoadParameter(this.path, this.executor, lazy, this.snapshot, this.reportListener,
+                this.progressListener, this.cancellation, this.sharedCertificates);
+    }
+
+    /**
+     * Create a copy of this parameter, which uses a pre-parsed snapshot of the file.
+     * <p>
+     * This is supported by the {@code PEM} and {@code PEMCA} key stores. If the snapshot file exists, and was created
+     * from the same content, the entries will be loaded from the snapshot instead of parsing the PEM file. Otherwise
+     * the PEM file is parsed, and the snapshot (re-)written. Entries loaded from a snapshot decode their content on
+     * first access.
+     * </p>
+     * <p>
+     * The snapshot contains the keys in unencrypted form, just like the PEM file. It should be stored next to the PEM
+     * file, e.g. using {@code path.resolveSibling("tls.pem.snapshot")}.
+     * </p>
+     *
+     * @param snapshot the snapshot file, {@code null} to not use a snapshot
+     * @return the new parameter instance
+     */
+    public PemLoadParameter withSnapshot(final Path snapshot) {
+        return new PemLoadParameter(this.path, this.executor, this.lazy, snapshot, this.reportListener,
+                this.progressListener, this.cancellation, this.sharedCertificates);
+    }
+
+    /**
+     * Create a copy of this parameter, which reports the time spent in the different phases of loading.
+     * <p>
+     * This is supported by all PEM based key stores. The listener gets called on the loading thread, once loading
+     * succeeded. Loading using an input stream doesn't create a report, see {@link LoadReport}.
+     * </p>
+     *
+     * @param reportListener the listener to receive the report, {@code null} to not create a report
+     * @return the new parameter instance
+     */
+    public PemLoadParameter withReportListener(final Consumer<LoadReport> reportListener) {
+        return new PemLoadParameter(this.path, this.executor, this.lazy, this.snapshot, reportListener,
+                this.progressListener, this.cancellation, this.sharedCertificates);
+    }
+
+    /**
+     * Create a copy of this parameter, which reports the progress of loading.
+     * <p>
+     * This is supported by all PEM based key stores. The listener gets called every time a source was read, or a PEM
+     * object was decoded. When decoding in parallel, it may be called concurrently from multiple threads.
+     * </p>
+     *
+     * @param progressListener the listener to receive the progress, {@code null} to not report progress
+     * @return the new parameter instance
+     */
+    public PemLoadParameter withProgressListener(final LoadProgressListener progressListener) {
+        return new PemLoadParameter(this.path, this.executor, this.lazy, this.snapshot, this.reportListener,
+                progressListener, this.cancellation, this.sharedCertificates);
+    }
+
+    /**
+     * Create a copy of this parameter, which aborts loading once cancelled.
+     * <p>
+     * The cancellation is checked every time a source was read, or a PEM object was scanned or decoded. Loading then
+     * fails with a {@link java.util.concurrent.CancellationException}.
+     * </p>
+     *
+     * @param cancellation returns {@code true} once loading should be aborted
+     * @return the new parameter instance
+     */
+    PemLoadParameter withCancellation(final BooleanSupplier cancellation) {
+        return new PemLoadParameter(this.path, this.executor, this.lazy, this.snapshot, this.reportListener,
+                this.progressListener, cancellation, this.sharedCertificates);
+    }
+
+    /**
+     * Create a copy of this parameter, which shares decoded certificates with other key stores.
+     * <p>
+     * This is supported by all PEM based key stores. Certificates are looked up by their fingerprint in a process wide
+     * table before decoding them, and an instance which is still in use is returned instead of decoding the
+     * certificate again. This saves memory when the same CA bundle, or the same intermediate certificates, are loaded
+     * by many key stores, at the cost of computing a fingerprint for every certificate.
+     * </p>
+     *
+     * @param sharedCertificates {@code true} to share decoded certificates
+     * @return the new parameter instance
+     */
+    public PemLoadParameter withSharedCertificates(final boolean sharedCertificates) {
+        return new PemLoadParameter(this.path, this.executor, this.lazy, this.snapshot, this.reportListener,
+                this.progressListener, this.cancellation, sharedCertificates);
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    public boolean isLazy() {
+        return this.lazy;
+    }
+
+    public Path getSnapshot() {
+        return this.snapshot;
+    }
+
+    public Consumer<LoadReport> getReportListener() {
+        return this.reportListener;
+    }
+
+    public LoadProgressListener getProgressListener() {
+        return this.progressListener;
+    }
+
+    public boolean isSharedCertificates() {
+        return this.sharedCertificates;
+    }
+
+    BooleanSupplier getCancellation() {
+        return this.cancellation;
+    }
+
+    @Override
+    public ProtectionParameter getProtectionParameter() {
+        return null;
+    }
+
+}
@@ -13,46 +13,39 @@ package de.dentrassi.crypto.pem;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.math.BigInteger;
-import java.security.KeyFactory;
+import java.security.AlgorithmParameters;
+import java.security.Key;
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
-import java.security.cert.CertificateFactory;
-import java.security.interfaces.ECPrivateKey;
 import java.security.spec.DSAPrivateKeySpec;
 import java.security.spec.DSAPublicKeySpec;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
 import java.security.spec.ECPoint;
+import java.security.spec.ECPrivateKeySpec;
 import java.security.spec.ECPublicKeySpec;
 import java.security.spec.InvalidKeySpecException;
+import java.security.spec.InvalidParameterSpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.RSAPrivateCrtKeySpec;
 import java.security.spec.RSAPublicKeySpec;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Base64;
-import java.util.List;
-
-import com.hierynomus.asn1.ASN1InputStream;
-import com.hierynomus.asn1.ASN1OutputStream;
-import com.hierynomus.asn1.encodingrules.der.DERDecoder;
-import com.hierynomus.asn1.encodingrules.der.DEREncoder;
-import com.hierynomus.asn1.types.ASN1Object;
-import com.hierynomus.asn1.types.constructed.ASN1Sequence;
-import com.hierynomus.asn1.types.constructed.ASN1TaggedObject;
-import com.hierynomus.asn1.types.primitive.ASN1Integer;
-import com.hierynomus.asn1.types.primitive.ASN1ObjectIdentifier;
-import com.hierynomus.asn1.types.string.ASN1BitString;
-import com.hierynomus.asn1.types.string.ASN1OctetString;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class PemReader extends BufferedReader {
 
-    private static final String BEGIN = "-----BEGIN ";
     private static final String CERTIFICATE = "CERTIFICATE";
     private static final String X509_CERTIFICATE = "X509 CERTIFICATE";
     private static final String EC_PRIVATE_KEY = "EC PRIVATE KEY";
@@ -60,194 +53,447 @@ public class PemReader extends BufferedReader {
     private static final String DSA_PRIVATE_KEY = "DSA PRIVATE KEY";
     private static final String RSA_PRIVATE_KEY = "RSA PRIVATE KEY";
     private static final String PRIVATE_KEY = "PRIVATE KEY";
-    private static final String END = "-----END ";
-    private static final List<String> KEY_ALGORITHMS = Arrays.asList("RSA", "DSA", "EC");
 
-    private static List<KeyFactory> keyFactories;
+    /**
+     * Key algorithms, by the OID of the algorithm identifier of a PKCS#8 private key.
+     */
+    private static final Map<String, String> KEY_ALGORITHMS;
 
-    private static List<KeyFactory> getKeyFactories() {
-        if (keyFactories == null) {
-            keyFactories = new ArrayList<>();
+    static {
+        final Map<String, String> algorithms = new HashMap<>();
+        algorithms.put("1.2.840.113549.1.1.1", "RSA");
+        algorithms.put("1.2.840.113549.1.1.10", "RSASSA-PSS");
+        algorithms.put("1.2.840.10040.4.1", "DSA");
+        algorithms.put(EC_PUBLIC_KEY_OBJ_ID, "EC");
+        algorithms.put("1.3.101.110", "X25519");
+        algorithms.put("1.3.101.111", "X448");
+        algorithms.put("1.3.101.112", "Ed25519");
+        algorithms.put("1.3.101.113", "Ed448");
+        KEY_ALGORITHMS = Collections.unmodifiableMap(algorithms);
+    }
 
-            KEY_ALGORITHMS.forEach(s -> {
-                try {
-                    keyFactories.add(KeyFactory.getInstance(s));
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            });
-        }
+    /**
+     * The context specific tags of the optional fields of an EC private key.
+     */
+    private static final int EC_PARAMETERS = DerReader.CONTEXT_SPECIFIC;
+    private static final int EC_PUBLIC_KEY = DerReader.CONTEXT_SPECIFIC | 1;
 
-        return keyFactories;
-    }
+    /**
+     * The parameters of named curves, by their OID.
+     */
+    private static final ConcurrentMap<String, ECParameterSpec> CURVES = new ConcurrentHashMap<>();
 
+    private final PemLexer lexer;
+
+    /**
+     * Create a new reader, consuming the characters of the reader.
+     * <p>
+     * The characters are expected to be ASCII. Characters outside the ASCII range are read as {@code '?'}.
+     * </p>
+     */
     public PemReader(Reader in) {
-        super(in);
+        super(in, 1);
+        this.lexer = PemLexer.fromReader(in);
+    }
+
+    /**
+     * Create a new reader, directly consuming the bytes of the input stream.
+     * <p>
+     * This avoids decoding the input into characters, and should be preferred over wrapping the stream into a
+     * {@link java.io.InputStreamReader}. The bytes are read as characters of the same value.
+     * </p>
+     */
+    public PemReader(InputStream in) {
+        super(new StreamCloser(in), 1);
+        this.lexer = PemLexer.fromStream(in);
     }
 
+    /**
+     * Read the next PEM object.
+     * <p>
+     * Any text before the object is skipped, and the input is consumed up to and including the line of the end marker.
+     * </p>
+     *
+     * @return the decoded object, or {@code null} if there are no more objects
+     */
     public Object readObject() throws CertificateException, IOException {
-        byte[] objectContent = null;
-        String objectType = null;
+        if (!this.lexer.next()) {
+            return null;
+        }
+
+        return decode(this.lexer.getType(), this.lexer.getContent(), this.lexer.getLength(), null);
+    }
+
+    // the inherited reader methods read through the lexer, so that they can be mixed with readObject()
+
+    @Override
+    public int read() throws IOException {
+        final int b = this.lexer.read();
+        return b >= 0 ? b : -1;
+    }
+
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        if (off < 0 || len < 0 || len > cbuf.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+
+        int n = 0;
+        while (n < len) {
+            // only block for the first character
+            if (n > 0 && !this.lexer.isBuffered()) {
+                break;
+            }
+            final int b = this.lexer.read();
+            if (b < 0) {
+                break;
+            }
+            cbuf[off + n++] = (char) b;
+        }
+        return n > 0 ? n : -1;
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        int b = this.lexer.read();
+        if (b < 0) {
+            return null;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        while (b >= 0 && b != '\n') {
+            sb.append((char) b);
+            b = this.lexer.read();
+        }
+
+        final int length = sb.length();
+        if (length > 0 && sb.charAt(length - 1) == '\r') {
+            sb.setLength(length - 1);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        if (n < 0) {
+            throw new IllegalArgumentException("skip value is negative");
+        }
+        long skipped = 0;
+        while (skipped < n && this.lexer.read() >= 0) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return this.lexer.isBuffered();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(final int readAheadLimit) throws IOException {
+        throw new IOException("mark() not supported");
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("reset() not supported");
+    }
+
+    /**
+     * Closes the input stream, when the superclass gets closed. The content is only read through the lexer.
+     */
+    private static final class StreamCloser extends Reader {
+
+        private final InputStream in;
+
+        StreamCloser(final InputStream in) {
+            this.in = in;
+        }
 
-        String line = readLine();
+        @Override
+        public int read(final char[] cbuf, final int off, final int len) throws IOException {
+            throw new IOException("Not supported");
+        }
 
-        while (line != null && !line.startsWith(BEGIN)) {
-            line = readLine();
+        @Override
+        public void close() throws IOException {
+            this.in.close();
         }
+    }
 
-        if (line != null) {
-            line = line.substring(BEGIN.length()).trim();
-            int index = line.indexOf('-');
+    /**
+     * Decode a DER encoded certificate.
+     *
+     * @param content the encoded certificate
+     * @param interner the table to intern the certificate with, may be {@code null}
+     */
+    static Certificate decodeCertificate(final byte[] content, final CertificateInterner interner)
+            throws CertificateException, IOException {
+        return (Certificate) decode(CERTIFICATE, content, content.length, interner);
+    }
 
-            if (index > 0 && line.endsWith("-----") && (line.length() - index) == 5) {
-                objectType = line.substring(0, index);
+    private static Certificate generateCertificate(final byte[] content, final int length)
+            throws CertificateException {
+        return FactoryPool.CERTIFICATE_FACTORIES.apply("X.509",
+                factory -> factory.generateCertificate(new ByteArrayInputStream(content, 0, length)));
+    }
 
-                StringBuffer buffer = new StringBuffer();
-                String endMarker = END + objectType + "-----";
-                while ((line = readLine()) != null && line.indexOf(endMarker) != 0) {
-                    if (line.indexOf(':') < 0) {
-                        buffer.append(line.trim());
-                    }
-                }
-                objectContent = Base64.getDecoder().decode(buffer.toString());
+    /**
+     * Decode a private key.
+     *
+     * @param objectType the PEM type of the key
+     * @param content the encoded key
+     * @return the private key
+     */
+    static Key decodeKey(final String objectType, final byte[] content) throws CertificateException, IOException {
+        final Object result = decode(objectType, content, content.length, null);
+        if (result instanceof KeyPair) {
+            return ((KeyPair) result).getPrivate();
+        } else if (result instanceof Key) {
+            return (Key) result;
+        }
+        throw new IOException("Not a key: " + objectType);
+    }
+
+    /**
+     * Check if the PEM type is a certificate.
+     */
+    static boolean isCertificate(final String objectType) {
+        return CERTIFICATE.equals(objectType) || X509_CERTIFICATE.equals(objectType);
+    }
+
+    /**
+     * Check if the PEM type is a private key, which can be decoded by this reader.
+     */
+    static boolean isKey(final String objectType) {
+        return EC_PRIVATE_KEY.equals(objectType) || DSA_PRIVATE_KEY.equals(objectType)
+                || RSA_PRIVATE_KEY.equals(objectType) || PRIVATE_KEY.equals(objectType);
+    }
+
+    /**
+     * Decode the binary content of a PEM object.
+     *
+     * @param objectType the type of the object, as found in the "BEGIN" marker
+     * @param content the buffer holding the decoded content
+     * @param length the number of valid bytes in the buffer
+     * @param interner the table to intern certificates with, may be {@code null}
+     * @return the decoded object, never returns {@code null}
+     */
+    static Object decode(final String objectType, final byte[] content, final int length,
+            final CertificateInterner interner) throws CertificateException, IOException {
+
+        if (isCertificate(objectType)) {
+            if (interner != null) {
+                return interner.intern(content, length, () -> generateCertificate(content, length));
             }
+            return generateCertificate(content, length);
         }
 
-        if (objectContent != null) {
-            if (CERTIFICATE.equals(objectType) || X509_CERTIFICATE.equals(objectType)) {
-                CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
-                try (ByteArrayInputStream contentInputStream = new ByteArrayInputStream(objectContent)) {
-                    return certificateFactory.generateCertificate(contentInputStream);
-                }
-            } else if (EC_PRIVATE_KEY.equals(objectType)) {
-            /*
-            https://datatracker.ietf.org/doc/html/rfc5915
-            ECPrivateKey ::= SEQUENCE {
-              version        INTEGER { ecPrivkeyVer1(1) } (ecPrivkeyVer1),
-              privateKey     OCTET STRING,
-              parameters [0] ECParameters {{ NamedCurve }} OPTIONAL,
-              publicKey  [1] BIT STRING OPTIONAL
+        if (EC_PRIVATE_KEY.equals(objectType)) {
+        /*
+        https://datatracker.ietf.org/doc/html/rfc5915
+        ECPrivateKey ::= SEQUENCE {
+          version        INTEGER { ecPrivkeyVer1(1) } (ecPrivkeyVer1),
+          privateKey     OCTET STRING,
+          parameters [0] ECParameters {{ NamedCurve }} OPTIONAL,
+          publicKey  [1] BIT STRING OPTIONAL
+        }
+        */
+            final DerReader ecSequence = new DerReader(content, 0, length).readSequence();
+            ecSequence.readInteger(); // version
+            final BigInteger privateValue = new BigInteger(1, ecSequence.readOctetString());
+
+            if (ecSequence.peekTag() != EC_PARAMETERS) {
+                throw new IOException("EC private key without named curve");
+            }
+            final ECParameterSpec parameters = getCurve(
+                    ecSequence.readConstructed(EC_PARAMETERS).readObjectIdentifier());
+
+            ECPoint publicPoint = null;
+            if (ecSequence.peekTag() == EC_PUBLIC_KEY) {
+                publicPoint = decodePoint(ecSequence.readConstructed(EC_PUBLIC_KEY).readBitString(), parameters);
             }
-            */
-                try (ASN1InputStream asn1In = new ASN1InputStream(new DERDecoder(), objectContent)) {
-                    ASN1Sequence pkcs1Sequence = asn1In.readObject();
-                    try (ByteArrayOutputStream pkcs8Out = new ByteArrayOutputStream()) {
-                        try (ASN1OutputStream asn1Out = new ASN1OutputStream(new DEREncoder(), pkcs8Out)) {
-                            List<ASN1Object> outObjects = new ArrayList<>();
-                            outObjects.add(new ASN1Integer(0));
-                            outObjects.add(new ASN1Sequence(Arrays.asList(new ASN1ObjectIdentifier(EC_PUBLIC_KEY_OBJ_ID), ((ASN1TaggedObject) pkcs1Sequence.get(2)).getObject())));
-                            outObjects.add(new ASN1OctetString(objectContent));
-                            asn1Out.writeObject(new ASN1Sequence(outObjects));
-                        }
-
-                        PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(pkcs8Out.toByteArray());
-                        try {
-                            KeyFactory ecKeyFactory = KeyFactory.getInstance("EC");
-
-                            PublicKey ecPublicKey = null;
-                            ECPrivateKey ecPrivateKey = (ECPrivateKey) ecKeyFactory.generatePrivate(keySpec);
-
-                            if (pkcs1Sequence.size() > 3) {
-                                byte[] ecPointBytes = ((ASN1BitString) ((ASN1TaggedObject) pkcs1Sequence.get(3)).getObject()).getValueBytes();
-                                if (ecPointBytes[0] == 4) {
-                                    byte[] ecPointXBytes = new byte[32];
-                                    byte[] ecPointYBytes = new byte[32];
-                                    System.arraycopy(ecPointBytes, 1, ecPointXBytes, 0, 32);
-                                    System.arraycopy(ecPointBytes, 33, ecPointYBytes, 0, 32);
-                                    ECPoint ecPoint = new ECPoint(new BigInteger(1, ecPointXBytes), new BigInteger(1, ecPointYBytes));
-                                    ECPublicKeySpec publicKeySpec = new ECPublicKeySpec(ecPoint, ecPrivateKey.getParams());
-                                    ecPublicKey = ecKeyFactory.generatePublic(publicKeySpec);
-                                }
-                            }
-
-                            return new KeyPair(ecPublicKey, ecPrivateKey);
-                        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
-                            throw new IOException(e);
-                        }
-                    }
-                }
-            } else if (DSA_PRIVATE_KEY.equals(objectType)) {
-            /*
-            https://datatracker.ietf.org/doc/html/draft-woodhouse-cert-best-practice-01
-            DSAPrivateKey ::= SEQUENCE {
-                version  INTEGER, -- should be zero
-                p        INTEGER,
-                q        INTEGER,
-                g        INTEGER,
-                pub      INTEGER, -- public
-                priv     INTEGER, -- private
+
+            final ECPrivateKeySpec privateKeySpec = new ECPrivateKeySpec(privateValue, parameters);
+            final ECPublicKeySpec publicKeySpec = publicPoint != null ? new ECPublicKeySpec(publicPoint, parameters)
+                    : null;
+
+            try {
+                return FactoryPool.KEY_FACTORIES.apply("EC", ecKeyFactory -> {
+                    PublicKey ecPublicKey = publicKeySpec != null ? ecKeyFactory.generatePublic(publicKeySpec) : null;
+                    PrivateKey ecPrivateKey = ecKeyFactory.generatePrivate(privateKeySpec);
+                    return new KeyPair(ecPublicKey, ecPrivateKey);
+                });
+            } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+                throw new IOException(e);
+            }
+        } else if (DSA_PRIVATE_KEY.equals(objectType)) {
+        /*
+        https://datatracker.ietf.org/doc/html/draft-woodhouse-cert-best-practice-01
+        DSAPrivateKey ::= SEQUENCE {
+            version  INTEGER, -- should be zero
+            p        INTEGER,
+            q        INTEGER,
+            g        INTEGER,
+            pub      INTEGER, -- public
+            priv     INTEGER, -- private
+        }
+        */
+            final DerReader dsaSequence = new DerReader(content, 0, length).readSequence();
+            dsaSequence.readInteger(); // version
+            final BigInteger p = dsaSequence.readInteger();
+            final BigInteger q = dsaSequence.readInteger();
+            final BigInteger g = dsaSequence.readInteger();
+            final BigInteger y = dsaSequence.readInteger();
+            final BigInteger x = dsaSequence.readInteger();
+
+            final DSAPublicKeySpec publicKeySpec = new DSAPublicKeySpec(y, p, q, g);
+            final DSAPrivateKeySpec privateKeySpec = new DSAPrivateKeySpec(x, p, q, g);
+
+            try {
+                return FactoryPool.KEY_FACTORIES.apply("DSA", dsaKeyFactory -> {
+                    PublicKey dsaPublicKey = dsaKeyFactory.generatePublic(publicKeySpec);
+                    PrivateKey dsaPrivateKey = dsaKeyFactory.generatePrivate(privateKeySpec);
+                    return new KeyPair(dsaPublicKey, dsaPrivateKey);
+                });
+            } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+                throw new IOException(e);
             }
-            */
-                try (ASN1InputStream asn1InputStream = new ASN1InputStream(new DERDecoder(), objectContent)) {
-                    ASN1Sequence pkcs1Sequence = asn1InputStream.readObject();
-
-                    //BigInteger y, BigInteger p, BigInteger q, BigInteger g)
-                    DSAPublicKeySpec publicKeySpec = new DSAPublicKeySpec(((ASN1Integer) pkcs1Sequence.get(4)).getValue(), ((ASN1Integer) pkcs1Sequence.get(1)).getValue(), ((ASN1Integer) pkcs1Sequence.get(2)).getValue(), ((ASN1Integer) pkcs1Sequence.get(3)).getValue());
-
-                    //BigInteger x, BigInteger p, BigInteger q, BigInteger g
-                    DSAPrivateKeySpec privateKeySpec = new DSAPrivateKeySpec(((ASN1Integer) pkcs1Sequence.get(5)).getValue(), ((ASN1Integer) pkcs1Sequence.get(1)).getValue(), ((ASN1Integer) pkcs1Sequence.get(2)).getValue(), ((ASN1Integer) pkcs1Sequence.get(3)).getValue());
-
-                    try {
-                        KeyFactory dsaKeyFactory = KeyFactory.getInstance("DSA");
-                        PublicKey dsaPublicKey = dsaKeyFactory.generatePublic(publicKeySpec);
-                        PrivateKey dsaPrivateKey = dsaKeyFactory.generatePrivate(privateKeySpec);
-                        return new KeyPair(dsaPublicKey, dsaPrivateKey);
-                    } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
-                        throw new IOException(e);
-                    }
-                }
-            } else if (RSA_PRIVATE_KEY.equals(objectType)) {
-            /*
-            https://datatracker.ietf.org/doc/html/rfc8017
-            RSAPrivateKey ::= SEQUENCE {
-                version           Version,
-                modulus           INTEGER,  -- n
-                publicExponent    INTEGER,  -- e
-                privateExponent   INTEGER,  -- d
-                prime1            INTEGER,  -- p
-                prime2            INTEGER,  -- q
-                exponent1         INTEGER,  -- d mod (p-1)
-                exponent2         INTEGER,  -- d mod (q-1)
-                coefficient       INTEGER,  -- (inverse of q) mod p
-                otherPrimeInfos   OtherPrimeInfos OPTIONAL
+        } else if (RSA_PRIVATE_KEY.equals(objectType)) {
+        /*
+        https://datatracker.ietf.org/doc/html/rfc8017
+        RSAPrivateKey ::= SEQUENCE {
+            version           Version,
+            modulus           INTEGER,  -- n
+            publicExponent    INTEGER,  -- e
+            privateExponent   INTEGER,  -- d
+            prime1            INTEGER,  -- p
+            prime2            INTEGER,  -- q
+            exponent1         INTEGER,  -- d mod (p-1)
+            exponent2         INTEGER,  -- d mod (q-1)
+            coefficient       INTEGER,  -- (inverse of q) mod p
+            otherPrimeInfos   OtherPrimeInfos OPTIONAL
+        }
+        */
+            final DerReader rsaSequence = new DerReader(content, 0, length).readSequence();
+            rsaSequence.readInteger(); // version
+            final BigInteger modulus = rsaSequence.readInteger();
+            final BigInteger publicExponent = rsaSequence.readInteger();
+            final BigInteger privateExponent = rsaSequence.readInteger();
+            final BigInteger primeP = rsaSequence.readInteger();
+            final BigInteger primeQ = rsaSequence.readInteger();
+            final BigInteger primeExponentP = rsaSequence.readInteger();
+            final BigInteger primeExponentQ = rsaSequence.readInteger();
+            final BigInteger crtCoefficient = rsaSequence.readInteger();
+
+            final RSAPublicKeySpec publicKeySpec = new RSAPublicKeySpec(modulus, publicExponent);
+            final RSAPrivateCrtKeySpec privateKeySpec = new RSAPrivateCrtKeySpec(modulus, publicExponent,
+                    privateExponent, primeP, primeQ, primeExponentP, primeExponentQ, crtCoefficient);
+
+            try {
+                return FactoryPool.KEY_FACTORIES.apply("RSA", rsaKeyFactory -> {
+                    PublicKey rsaPublicKey = rsaKeyFactory.generatePublic(publicKeySpec);
+                    PrivateKey rsaPrivateKey = rsaKeyFactory.generatePrivate(privateKeySpec);
+                    return new KeyPair(rsaPublicKey, rsaPrivateKey);
+                });
+            } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+                throw new IOException(e);
             }
-            */
-                try (ASN1InputStream asn1InputStream = new ASN1InputStream(new DERDecoder(), objectContent)) {
-                    ASN1Sequence pkcs1Sequence = asn1InputStream.readObject();
-
-                    //BigInteger modulus, BigInteger publicExponent
-                    RSAPublicKeySpec publicKeySpec = new RSAPublicKeySpec(((ASN1Integer) pkcs1Sequence.get(1)).getValue(), ((ASN1Integer) pkcs1Sequence.get(2)).getValue());
-
-                    //BigInteger modulus, BigInteger publicExponent, BigInteger privateExponent, BigInteger primeP, BigInteger primeQ, BigInteger primeExponentP, BigInteger primeExponentQ, BigInteger crtCoefficient
-                    RSAPrivateCrtKeySpec privateKeySpec = new RSAPrivateCrtKeySpec(((ASN1Integer) pkcs1Sequence.get(1)).getValue(), ((ASN1Integer) pkcs1Sequence.get(2)).getValue(), ((ASN1Integer) pkcs1Sequence.get(3)).getValue(), ((ASN1Integer) pkcs1Sequence.get(4)).getValue(), ((ASN1Integer) pkcs1Sequence.get(5)).getValue(), ((ASN1Integer) pkcs1Sequence.get(6)).getValue(), ((ASN1Integer) pkcs1Sequence.get(7)).getValue(), ((ASN1Integer) pkcs1Sequence.get(8)).getValue());
-
-                    try {
-                        KeyFactory rsaKeyFactory = KeyFactory.getInstance("RSA");
-                        PublicKey rsaPublicKey = rsaKeyFactory.generatePublic(publicKeySpec);
-                        PrivateKey rsaPrivateKey = rsaKeyFactory.generatePrivate(privateKeySpec);
-                        return new KeyPair(rsaPublicKey, rsaPrivateKey);
-                    } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
-                        throw new IOException(e);
-                    }
-                }
-            } else if (PRIVATE_KEY.equals(objectType)) {
-                PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(objectContent);
-
-                InvalidKeySpecException firstException = null;
-                for (KeyFactory factory : getKeyFactories()) {
-                    try {
-                        return factory.generatePrivate(keySpec);
-                    } catch (InvalidKeySpecException e) {
-                        if (firstException == null)
-                            firstException = e;
-                    }
-                }
-                throw new IOException("Private key could not be loaded", firstException);
-            } else {
-                throw new IOException("Invalid object: " + objectType);
+        } else if (PRIVATE_KEY.equals(objectType)) {
+            final byte[] objectContent = copy(content, length);
+            final String algorithm = getKeyAlgorithm(objectContent);
+            try {
+                return FactoryPool.KEY_FACTORIES.apply(algorithm,
+                        factory -> factory.generatePrivate(new PKCS8EncodedKeySpec(objectContent)));
+            } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+                throw new IOException("Private key could not be loaded", e);
             }
+        } else {
+            throw new IOException("Invalid object: " + objectType);
         }
+    }
 
-        return null;
+    /**
+     * Get the parameters of a named curve.
+     * <p>
+     * The parameters are looked up once per curve, and cached.
+     * </p>
+     *
+     * @param oid the object identifier of the curve
+     * @throws IOException if the curve is not supported
+     */
+    static ECParameterSpec getCurve(final String oid) throws IOException {
+        final ECParameterSpec result = CURVES.get(oid);
+        if (result != null) {
+            return result;
+        }
+
+        final ECParameterSpec parameters;
+        try {
+            final AlgorithmParameters algorithmParameters = AlgorithmParameters.getInstance("EC");
+            algorithmParameters.init(new ECGenParameterSpec(oid));
+            parameters = algorithmParameters.getParameterSpec(ECParameterSpec.class);
+        } catch (final NoSuchAlgorithmException | InvalidParameterSpecException e) {
+            throw new IOException("Unsupported curve: " + oid, e);
+        }
+
+        final ECParameterSpec existing = CURVES.putIfAbsent(oid, parameters);
+        return existing != null ? existing : parameters;
+    }
+
+    /**
+     * Decode an uncompressed EC point.
+     *
+     * @return the point, or {@code null} if the point is compressed
+     * @throws IOException if the encoding doesn't match the size of the curve
+     */
+    private static ECPoint decodePoint(final byte[] encoded, final ECParameterSpec parameters) throws IOException {
+        if (encoded.length == 0 || encoded[0] != 4) {
+            return null;
+        }
+
+        final int size = (parameters.getCurve().getField().getFieldSize() + 7) / 8;
+        if (encoded.length != 1 + 2 * size) {
+            throw new IOException("Invalid EC point encoding");
+        }
+
+        return new ECPoint(new BigInteger(1, Arrays.copyOfRange(encoded, 1, 1 + size)),
+                new BigInteger(1, Arrays.copyOfRange(encoded, 1 + size, encoded.length)));
+    }
+
+    private static byte[] copy(final byte[] content, final int length) {
+        return length == content.length ? content : Arrays.copyOf(content, length);
+    }
+
+    /**
+     * Get the key algorithm of a PKCS#8 private key.
+     * <p>
+     * Algorithms which are not known by this reader will be returned as the plain OID, which providers may register
+     * as an alias for their key factory.
+     * </p>
+     */
+    static String getKeyAlgorithm(final byte[] pkcs8) throws IOException {
+        /*
+        https://datatracker.ietf.org/doc/html/rfc5208
+        PrivateKeyInfo ::= SEQUENCE {
+            version                   Version,
+            privateKeyAlgorithm       AlgorithmIdentifier,
+            privateKey                PrivateKey,
+            attributes           [0]  IMPLICIT Attributes OPTIONAL
+        }
+        */
+        final DerReader privateKeyInfo = new DerReader(pkcs8).readSequence();
+        privateKeyInfo.skip();
+        final String oid = privateKeyInfo.readSequence().readObjectIdentifier();
+        return KEY_ALGORITHMS.getOrDefault(oid, oid);
     }
 }
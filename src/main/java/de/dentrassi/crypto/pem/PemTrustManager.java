@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.net.Socket;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.net.ssl.ExtendedSSLSession;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+/**
+ * A trust manager, caching the successful validations of a delegate trust manager.
+ *
+ * @see PemTrustManagerFactory
+ * @see ValidationCache
+ */
+final class PemTrustManager extends X509ExtendedTrustManager {
+
+    private static final Logger logger = Logger.getLogger(PemTrustManager.class.getName());
+
+    private static final String DELEGATE_ALGORITHM = "PKIX";
+
+    @FunctionalInterface
+    private interface Check {
+        void check(X509ExtendedTrustManager delegate) throws CertificateException;
+    }
+
+    private final KeyStore keyStore;
+    private final int maximumSize;
+    private final long timeToLive;
+    private final KeyStoreVersion version;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile State state;
+
+    PemTrustManager(final PemTrustManagerParameters parameters) throws KeyStoreException {
+        this.keyStore = parameters.getKeyStore();
+        this.maximumSize = parameters.getMaximumSize();
+        this.timeToLive = parameters.getTimeToLive().toMillis();
+        this.version = new KeyStoreVersion(this.keyStore);
+        this.state = createState(this.version.get());
+    }
+
+    private State createState(final long version) throws KeyStoreException {
+        final TrustManagerFactory factory;
+        try {
+            factory = TrustManagerFactory.getInstance(DELEGATE_ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new KeyStoreException(e);
+        }
+        factory.init(this.keyStore);
+
+        for (final TrustManager trustManager : factory.getTrustManagers()) {
+            if (trustManager instanceof X509ExtendedTrustManager) {
+                return new State(version, (X509ExtendedTrustManager) trustManager,
+                        new ValidationCache(this.maximumSize, this.timeToLive));
+            }
+        }
+
+        throw new KeyStoreException("No X.509 trust manager available for: " + DELEGATE_ALGORITHM);
+    }
+
+    /**
+     * Get the current state, re-creating it if the key store was modified.
+     * <p>
+     * Only one thread re-creates the state. Other threads keep using the previous state in the meantime. The cached
+     * results are only dropped if the trusted certificates actually changed, as modifying other entries of the key
+     * store will trigger a check as well.
+     * </p>
+     */
+    private State state() {
+        final State state = this.state;
+
+        // record the version before building, so that we don't miss modifications happening while building
+
+        final long version = this.version.get();
+        if (state.version == version || !this.refreshLock.tryLock()) {
+            return state;
+        }
+
+        try {
+            final State current = this.state;
+            if (current.version == version) {
+                // another thread was faster
+                return current;
+            }
+
+            State result;
+            try {
+                result = createState(version);
+                if (Arrays.equals(result.delegate.getAcceptedIssuers(), current.delegate.getAcceptedIssuers())) {
+                    // the trust anchors did not change, keep the cached results
+                    result = new State(version, result.delegate, current.cache);
+                }
+            } catch (final KeyStoreException | RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to refresh trust manager, keeping previous trust anchors", e);
+                result = new State(version, current.delegate, new ValidationCache(this.maximumSize, this.timeToLive));
+            }
+            this.state = result;
+            return result;
+        } finally {
+            this.refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Get the current delegate trust manager.
+     */
+    X509ExtendedTrustManager getDelegate() {
+        return state().delegate;
+    }
+
+    /**
+     * Get the number of currently cached validation results.
+     */
+    int getCachedResults() {
+        return state().cache.size();
+    }
+
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType)
+            throws CertificateException {
+        check(chain, parameters(true, authType), delegate -> delegate.checkClientTrusted(chain, authType));
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType)
+            throws CertificateException {
+        check(chain, parameters(false, authType), delegate -> delegate.checkServerTrusted(chain, authType));
+    }
+
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType, final Socket socket)
+            throws CertificateException {
+        check(chain, parameters(true, authType, socket),
+                delegate -> delegate.checkClientTrusted(chain, authType, socket));
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType, final Socket socket)
+            throws CertificateException {
+        check(chain, parameters(false, authType, socket),
+                delegate -> delegate.checkServerTrusted(chain, authType, socket));
+    }
+
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType, final SSLEngine engine)
+            throws CertificateException {
+        check(chain, parameters(true, authType, engine),
+                delegate -> delegate.checkClientTrusted(chain, authType, engine));
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType, final SSLEngine engine)
+            throws CertificateException {
+        check(chain, parameters(false, authType, engine),
+                delegate -> delegate.checkServerTrusted(chain, authType, engine));
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return state().delegate.getAcceptedIssuers();
+    }
+
+    private void check(final X509Certificate[] chain, final List<Object> parameters, final Check check)
+            throws CertificateException {
+
+        final State state = state();
+
+        if (chain == null || chain.length == 0 || parameters == null) {
+            // let the delegate deal with it
+            check.check(state.delegate);
+            return;
+        }
+
+        final ValidationCache.Key key = ValidationCache.key(chain, parameters);
+        if (key != null && state.cache.isValid(key, System.currentTimeMillis())) {
+            return;
+        }
+
+        check.check(state.delegate);
+
+        if (key != null) {
+            state.cache.put(key, chain, System.currentTimeMillis());
+        }
+    }
+
+    private static List<Object> parameters(final boolean client, final String authType) {
+        return Arrays.asList(client, authType);
+    }
+
+    private static List<Object> parameters(final boolean client, final String authType, final Socket socket) {
+        if (!(socket instanceof SSLSocket)) {
+            return parameters(client, authType);
+        }
+        final SSLSocket sslSocket = (SSLSocket) socket;
+        return parameters(client, authType, sslSocket.getSSLParameters(), sslSocket.getHandshakeSession());
+    }
+
+    private static List<Object> parameters(final boolean client, final String authType, final SSLEngine engine) {
+        if (engine == null) {
+            return parameters(client, authType);
+        }
+        return parameters(client, authType, engine.getSSLParameters(), engine.getHandshakeSession());
+    }
+
+    /**
+     * Collect all parameters of a handshake which influence the validation of the delegate.
+     *
+     * @return the parameters, or {@code null} if there is no handshake session, and the result should not be cached
+     */
+    private static List<Object> parameters(final boolean client, final String authType,
+            final SSLParameters parameters, final SSLSession session) {
+
+        if (session == null) {
+            return null;
+        }
+
+        final String identification = parameters.getEndpointIdentificationAlgorithm();
+
+        Object signatureAlgorithms = null;
+        Object serverNames = null;
+        if (session instanceof ExtendedSSLSession) {
+            final ExtendedSSLSession extendedSession = (ExtendedSSLSession) session;
+            signatureAlgorithms = Arrays.asList(extendedSession.getLocalSupportedSignatureAlgorithms());
+            if (identification != null) {
+                serverNames = extendedSession.getRequestedServerNames();
+            }
+        }
+
+        // algorithm constraints don't implement equals, the JDK default is a shared instance though
+
+        return Arrays.asList(client, authType, session.getProtocol(), parameters.getAlgorithmConstraints(),
+                signatureAlgorithms, identification, identification != null ? session.getPeerHost() : null,
+                serverNames);
+    }
+
+    private static final class State {
+
+        private final long version;
+        private final X509ExtendedTrustManager delegate;
+        private final ValidationCache cache;
+
+        State(final long version, final X509ExtendedTrustManager delegate, final ValidationCache cache) {
+            this.version = version;
+            this.delegate = delegate;
+            this.cache = cache;
+        }
+    }
+}
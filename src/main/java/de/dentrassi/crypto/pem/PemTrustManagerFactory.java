@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+
+import javax.net.ssl.ManagerFactoryParameters;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactorySpi;
+
+/**
+ * A {@link javax.net.ssl.TrustManagerFactory}, which caches the results of validating certificate chains.
+ * <p>
+ * The JDK trust managers validate the full certificate path, including the verification of all signatures, for every
+ * TLS handshake. Clients which reconnect frequently, present the same certificate chain over and over again. The trust
+ * managers of this factory delegate the validation to the JDK {@code PKIX} trust manager, and cache successful
+ * results, keyed by the fingerprint of the chain and the parameters of the handshake, like the authentication type,
+ * the protocol, and the host name when endpoint identification is enabled. Failed validations are never cached.
+ * </p>
+ * <p>
+ * If the key store gets reloaded or modified, the trusted certificates are re-read on the next handshake, and the
+ * cache is cleared if they changed. Only changes of this key store are considered. PEM key stores report their
+ * changes directly, other key stores are checked for changed aliases or creation dates at most once a second.
+ * </p>
+ * <p>
+ * The factory is registered with the name {@code PEM}, and can be used with any type of key store:
+ * </p>
+ *
+ * <pre>
+ * TrustManagerFactory tmf = TrustManagerFactory.getInstance("PEM", new PemKeyStoreProvider());
+ * tmf.init(trustStore);
+ * </pre>
+ *
+ * <p>
+ * The size of the cache, and the time to keep results, can be configured using {@link PemTrustManagerParameters}.
+ * </p>
+ */
+public class PemTrustManagerFactory extends TrustManagerFactorySpi {
+
+    private PemTrustManager trustManager;
+
+    @Override
+    protected void engineInit(final KeyStore ks) throws KeyStoreException {
+        this.trustManager = new PemTrustManager(new PemTrustManagerParameters(ks));
+    }
+
+    @Override
+    protected void engineInit(final ManagerFactoryParameters spec) throws InvalidAlgorithmParameterException {
+        if (!(spec instanceof PemTrustManagerParameters)) {
+            throw new InvalidAlgorithmParameterException("Unsupported parameters: " + spec);
+        }
+        try {
+            this.trustManager = new PemTrustManager((PemTrustManagerParameters) spec);
+        } catch (final KeyStoreException e) {
+            throw new InvalidAlgorithmParameterException(e);
+        }
+    }
+
+    @Override
+    protected TrustManager[] engineGetTrustManagers() {
+        if (this.trustManager == null) {
+            throw new IllegalStateException("TrustManagerFactory is not initialized");
+        }
+        return new TrustManager[] { this.trustManager };
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Objects;
+
+import javax.net.ssl.ManagerFactoryParameters;
+
+/**
+ * Parameters for the {@code PEM} {@link javax.net.ssl.TrustManagerFactory}.
+ * <p>
+ * Allows to configure the cache of validation results, in addition to the key store with the trusted certificates.
+ * </p>
+ *
+ * @see PemTrustManagerFactory
+ */
+public class PemTrustManagerParameters implements ManagerFactoryParameters {
+
+    /**
+     * The default maximum number of cached validation results.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    /**
+     * The default maximum time to keep a validation result.
+     */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(15);
+
+    private final KeyStore keyStore;
+    private final int maximumSize;
+    private final Duration timeToLive;
+
+    /**
+     * Create new parameters, using the default cache settings.
+     *
+     * @param keyStore the key store with the trusted certificates, {@code null} to use the default trust store of
+     *        the JDK
+     */
+    public PemTrustManagerParameters(final KeyStore keyStore) {
+        this(keyStore, DEFAULT_MAXIMUM_SIZE, DEFAULT_TIME_TO_LIVE);
+    }
+
+    private PemTrustManagerParameters(final KeyStore keyStore, final int maximumSize, final Duration timeToLive) {
+        this.keyStore = keyStore;
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Create a copy of these parameters, with a different maximum number of cached validation results.
+     *
+     * @param maximumSize the maximum number of results, {@code 0} disables caching
+     * @return the new parameter instance
+     */
+    public PemTrustManagerParameters withMaximumSize(final int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size must not be negative: " + maximumSize);
+        }
+        return new PemTrustManagerParameters(this.keyStore, maximumSize, this.timeToLive);
+    }
+
+    /**
+     * Create a copy of these parameters, with a different maximum time to keep a validation result.
+     * <p>
+     * A result never outlives the certificates of the validated chain. However, if revocation checking is enabled,
+     * a certificate, which gets revoked, is accepted until the result expires.
+     * </p>
+     *
+     * @param timeToLive the time to live
+     * @return the new parameter instance
+     */
+    public PemTrustManagerParameters withTimeToLive(final Duration timeToLive) {
+        if (Objects.requireNonNull(timeToLive).isNegative()) {
+            throw new IllegalArgumentException("Time to live must not be negative: " + timeToLive);
+        }
+        return new PemTrustManagerParameters(this.keyStore, this.maximumSize, timeToLive);
+    }
+
+    public KeyStore getKeyStore() {
+        return this.keyStore;
+    }
+
+    public int getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    public Duration getTimeToLive() {
+        return this.timeToLive;
+    }
+
+}
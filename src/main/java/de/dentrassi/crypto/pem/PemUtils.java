@@ -11,11 +11,13 @@
 
 package de.dentrassi.crypto.pem;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.security.Key;
 import java.security.KeyPair;
 import java.security.PrivateKey;
@@ -23,104 +25,535 @@ import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import de.dentrassi.crypto.pem.AbstractPemKeyStore.Entry;
 
 public class PemUtils {
 
     private static final String SOURCE_PREFIX = "source.";
+    private static final String THREADS = "threads";
+
+    private static final int BATCH_SIZE = 128;
 
     public static Map<String, Entry> loadFrom(final InputStream stream, final boolean chained)
             throws CertificateException, IOException {
+        return loadFrom(stream, chained, null);
+    }
+
+    /**
+     * Load entries from a PEM stream, decoding the PEM objects in parallel.
+     * <p>
+     * The stream is split into PEM blocks, which then get decoded in batches using the provided executor. The result
+     * is the same as when decoding sequentially, including the alias numbering.
+     * </p>
+     *
+     * @param executor the executor to use for decoding, {@code null} to decode on the calling thread
+     */
+    public static Map<String, Entry> loadFrom(final InputStream stream, final boolean chained,
+            final Executor executor) throws CertificateException, IOException {
 
         final Map<String, Entry> result = new HashMap<>();
 
-        loadFrom(result, "pem", chained, stream);
+        try (InputStream in = stream) {
+            loadFrom(result, "pem", chained, PemLexer.fromStream(in), executor);
+        }
 
         return result;
     }
 
-    public static Map<String, Entry> loadFromConfiguration(final InputStream stream)
+    /**
+     * Load entries from a PEM file.
+     * <p>
+     * The file will be memory mapped and scanned in place.
+     * </p>
+     */
+    public static Map<String, Entry> loadFrom(final Path path, final boolean chained)
+            throws CertificateException, IOException {
+        return loadFrom(path, chained, null);
+    }
+
+    /**
+     * Load entries from a PEM file, decoding the PEM objects in parallel.
+     * <p>
+     * The file will be memory mapped and split into PEM blocks, which then get decoded in batches using the provided
+     * executor. The result is the same as when decoding sequentially, including the alias numbering.
+     * </p>
+     *
+     * @param executor the executor to use for decoding, {@code null} to decode on the calling thread
+     */
+    public static Map<String, Entry> loadFrom(final Path path, final boolean chained, final Executor executor)
+            throws CertificateException, IOException {
+
+        final Map<String, Entry> result = new HashMap<>();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            loadFrom(result, "pem", chained, PemLexer.fromChannel(channel), executor);
+        }
+
+        return result;
+    }
+
+    /**
+     * Load entries from a PEM file, using the provided parameters.
+     * <p>
+     * If the parameters request lazy decoding, the entries will only hold the encoded content, and decode it on first
+     * access. Otherwise, the executor of the parameters (if any) is used to decode the entries in parallel.
+     * </p>
+     * <p>
+     * If the parameters provide a snapshot file, the entries will be loaded from the snapshot if it is still valid for
+     * the file. Otherwise, the snapshot will be re-created after loading the file.
+     * </p>
+     */
+    public static Map<String, Entry> loadFrom(final PemLoadParameter parameter, final boolean chained)
+            throws CertificateException, IOException {
+
+        if (parameter.getSnapshot() == null) {
+            return loadFile(parameter, chained);
+        }
+
+        final String kind = chained ? "PEM" : "PEMCA";
+        final List<Snapshot.Source> sources = Collections.singletonList(Snapshot.Source.of(parameter.getPath()));
+
+        Map<String, Entry> result = Snapshot.read(parameter.getSnapshot(), kind, sources);
+        if (result == null) {
+            result = loadFile(parameter, chained);
+            Snapshot.write(parameter.getSnapshot(), kind, sources, result);
+        }
+        return result;
+    }
+
+    private static Map<String, Entry> loadFile(final PemLoadParameter parameter, final boolean chained)
             throws CertificateException, IOException {
 
         final Map<String, Entry> result = new HashMap<>();
 
+        try (FileChannel channel = FileChannel.open(parameter.getPath(), StandardOpenOption.READ)) {
+            final PemLexer lexer = PemLexer.fromChannel(channel);
+            if (parameter.isLazy()) {
+                loadEncoded(result, "pem", chained, lexer);
+            } else {
+                loadFrom(result, "pem", chained, lexer, parameter.getExecutor());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Load the certificates of a PEM file into a read-only map, keeping their encoded form off-heap.
+     * <p>
+     * Every certificate becomes its own entry, the same way as when loading a bundle lazily. Certificates are only
+     * decoded when they are accessed.
+     * </p>
+     *
+     * @see PackedEntries
+     */
+    static Map<String, Entry> loadPacked(final PemLoadParameter parameter) throws IOException {
+
+        final LoadMonitor monitor = LoadMonitor.current();
+
+        final PackedEntries.Builder builder;
+        String keyType = null;
+        byte[] key = null;
+        int counter = 0;
+
+        try (FileChannel channel = FileChannel.open(parameter.getPath(), StandardOpenOption.READ)) {
+            // the DER content takes at most 3/4 of its base64 text, and the aliases are shorter than 3/4 of the
+            // markers they replace, so this is an upper bound, and the buffer never needs to grow
+            builder = new PackedEntries.Builder(channel.size() / 4 * 3 + "pem".length());
+
+            final PemLexer lexer = PemLexer.fromChannel(channel);
+
+            long start = monitor.now();
+            while (lexer.next()) {
+                monitor.scanned(start);
+                final String type = lexer.getType();
+                if (PemReader.isCertificate(type)) {
+                    builder.add("pem-" + counter++, lexer.getContent(), lexer.getLength());
+                } else if (PemReader.isKey(type)) {
+                    keyType = type;
+                    key = lexer.copyContent();
+                } else {
+                    throw new IOException("Invalid object: " + type);
+                }
+                start = monitor.now();
+            }
+            monitor.scanned(start);
+        }
+
+        if (key == null) {
+            // the same as the collector, which always adds the main entry
+            builder.addEmpty("pem");
+            return builder.build();
+        }
+
+        // a bundle with a key is unusual, fall back to a regular map
+
+        final Map<String, Entry> result = new HashMap<>(builder.build());
+        merge(result, "pem", Entry.encoded(keyType, key, null));
+        return result;
+    }
+
+    public static Map<String, Entry> loadFromConfiguration(final InputStream stream)
+            throws CertificateException, IOException {
+
         final Properties p = new Properties();
         p.load(stream);
 
+        return loadFromConfiguration(p);
+
+    }
+
+    /**
+     * Load entries from an already parsed configuration.
+     *
+     * @param p the configuration
+     */
+    public static Map<String, Entry> loadFromConfiguration(final Properties p)
+            throws CertificateException, IOException {
+        return loadFromConfiguration(p, PemUtils::loadSource);
+    }
+
+    /**
+     * Loads the entry of a single source of a configuration.
+     */
+    @FunctionalInterface
+    interface SourceLoader {
+        Entry load(String source) throws CertificateException, IOException;
+    }
+
+    /**
+     * Load entries from a configuration, using the provided loader for each source.
+     * <p>
+     * The sources are loaded concurrently, as reading them may block, for example on network file systems. Unless the
+     * property {@code threads} limits the number of threads, each source is loaded on a virtual thread, if available.
+     * The entries of all sources get merged, in the order of the sources, into a single entry, so the result is the
+     * same as when loading sequentially. The loader must be safe to call concurrently.
+     * </p>
+     */
+    static Map<String, Entry> loadFromConfiguration(final Properties p, final SourceLoader loader)
+            throws CertificateException, IOException {
+
+        final Map<String, Entry> result = new HashMap<>();
+
         final String alias = p.getProperty("alias", "pem");
+        final String threads = p.getProperty(THREADS);
+        final int maxThreads = threads != null ? ParallelLoader.parseThreads(THREADS, threads) : 0;
 
-        for (final String key : p.stringPropertyNames()) {
-            if (key.startsWith(SOURCE_PREFIX)) {
-                try (InputStream source = openResource(p.getProperty(key))) {
-                    loadFrom(result, alias, true, source);
-                }
-            }
+        final List<ParallelLoader.Task<Entry>> tasks = new ArrayList<>();
+        for (final String source : getSources(p)) {
+            tasks.add(() -> loader.load(source));
+        }
+
+        final List<Entry> entries = threads != null ? ParallelLoader.run(tasks, maxThreads)
+                : ParallelLoader.runVirtual(tasks);
+
+        for (final Entry entry : entries) {
+            merge(result, alias, entry);
         }
 
         return result;
 
     }
 
-    private static InputStream openResource(final String uri) throws IOException {
+    /**
+     * Load the entry of a single source.
+     *
+     * @param source the location of the source
+     */
+    static Entry loadSource(final String source) throws CertificateException, IOException {
+        return loadEntry(openResource(source));
+    }
+
+    /**
+     * Load a single, chained entry from a stream.
+     */
+    static Entry loadEntry(final InputStream stream) throws CertificateException, IOException {
+        final Map<String, Entry> result = new HashMap<>(2);
+        loadFrom(result, "pem", true, stream);
+        return result.get("pem");
+    }
+
+    private static void merge(final Map<String, Entry> result, final String alias, final Entry e) {
+        result.compute(alias, (k, v) -> {
+            if (v != null) {
+                return v.merge(e);
+            } else {
+                return e;
+            }
+        });
+    }
+
+    /**
+     * Get the locations of all sources of a configuration.
+     * <p>
+     * The sources are ordered by their property key, so that the order of merging them doesn't depend on the hash
+     * order of the properties.
+     * </p>
+     */
+    static List<String> getSources(final Properties p) {
+        final List<String> result = new ArrayList<>();
+        for (final String key : new TreeSet<>(p.stringPropertyNames())) {
+            if (key.startsWith(SOURCE_PREFIX)) {
+                result.add(p.getProperty(key));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the file system path of a source location.
+     *
+     * @return the path, or {@code null} if the source is not located in the file system
+     */
+    static Path getSourcePath(final String uri) {
         if (uri.startsWith("classpath:")) {
+            return null;
+        }
+        return Paths.get(uri.startsWith("file://") ? uri.substring(7) : uri);
+    }
+
+    static InputStream openResource(final String uri) throws IOException {
+        final Path path = getSourcePath(uri);
+        if (path == null) {
             return Thread.currentThread().getContextClassLoader().getResourceAsStream(uri.substring(10));
         } else {
-            return new FileInputStream(uri.startsWith("file://") ? uri.substring(7) : uri);
+            return Files.newInputStream(path);
         }
     }
 
     private static void loadFrom(final Map<String, Entry> result, final String alias, final boolean chained,
             final InputStream stream) throws CertificateException, IOException {
 
-        final List<Certificate> chain = new ArrayList<>();
-        Key key = null;
-        int counter = 0;
+        try (InputStream in = stream) {
+            loadFrom(result, alias, chained, PemLexer.fromStream(in), null);
+        }
 
-        Object object;
-        try (PemReader pemReader = new PemReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
-            while ((object = pemReader.readObject()) != null) {
+    }
 
-                if (object instanceof Certificate) {
+    private static void loadFrom(final Map<String, Entry> result, final String alias, final boolean chained,
+            final PemLexer lexer, final Executor executor) throws CertificateException, IOException {
 
-                    final Certificate cert = (Certificate)object;
+        final EntryCollector collector = new EntryCollector(result, alias, chained);
+        final LoadMonitor monitor = LoadMonitor.current();
 
-                    if (chained) {
-                        if (cert instanceof X509Certificate) {
-                            chain.add(cert);
-                        }
-                    } else {
-                        result.put(alias + "-" + counter++, new Entry(null, new Certificate[] { cert }));
-                    }
+        if (executor == null) {
+            long start = monitor.now();
+            while (lexer.next()) {
+                monitor.scanned(start);
+
+                start = monitor.now();
+                final Object event = monitor.beginDecode();
+                collector.add(PemReader.decode(lexer.getType(), lexer.getContent(), lexer.getLength(),
+                        monitor.getInterner()));
+                monitor.decoded(start, event, lexer.getType(), lexer.getLength());
+
+                start = monitor.now();
+            }
+            monitor.scanned(start);
+        } else {
+            for (final Object object : decodeParallel(lexer, executor, monitor)) {
+                collector.add(object);
+            }
+        }
+
+        collector.complete();
 
-                } else if (object instanceof KeyPair) {
+    }
+
+    private static void loadEncoded(final Map<String, Entry> result, final String alias, final boolean chained,
+            final PemLexer lexer) throws IOException {
 
-                    key = ((KeyPair)object).getPrivate();
+        final EntryCollector collector = new EntryCollector(result, alias, chained);
+        final LoadMonitor monitor = LoadMonitor.current();
 
-                } else if (object instanceof PrivateKey) {
+        long start = monitor.now();
+        while (lexer.next()) {
+            monitor.scanned(start);
+            collector.addEncoded(lexer.getType(), lexer.copyContent());
+            start = monitor.now();
+        }
+        monitor.scanned(start);
 
-                    key = (PrivateKey)object;
+        collector.complete();
+
+    }
 
+    /**
+     * Split the input into PEM blocks, and decode them in batches using the provided executor.
+     * <p>
+     * Batches are submitted while the input is still being scanned, so that scanning and decoding overlap.
+     * </p>
+     *
+     * @return the decoded objects, in the order of the input
+     */
+    private static List<Object> decodeParallel(final PemLexer lexer, final Executor executor,
+            final LoadMonitor monitor) throws CertificateException, IOException {
+
+        final List<CompletableFuture<List<Object>>> batches = new ArrayList<>();
+
+        List<String> types = new ArrayList<>(BATCH_SIZE);
+        List<byte[]> contents = new ArrayList<>(BATCH_SIZE);
+
+        long start = monitor.now();
+        while (lexer.next()) {
+            types.add(lexer.getType());
+            contents.add(lexer.copyContent());
+
+            if (types.size() >= BATCH_SIZE) {
+                monitor.scanned(start);
+                batches.add(decodeAsync(types, contents, executor, monitor));
+                start = monitor.now();
+                types = new ArrayList<>(BATCH_SIZE);
+                contents = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+
+        monitor.scanned(start);
+
+        if (!types.isEmpty()) {
+            batches.add(decodeAsync(types, contents, executor, monitor));
+        }
+
+        final List<Object> result = new ArrayList<>(batches.size() * BATCH_SIZE);
+
+        for (final CompletableFuture<List<Object>> batch : batches) {
+            try {
+                result.addAll(batch.join());
+            } catch (final CompletionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof CertificateException) {
+                    throw (CertificateException) cause;
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
                 }
+                throw e;
             }
         }
 
-        final Certificate[] certificateChain = chain.isEmpty() ? null
-                : chain.toArray(new X509Certificate[chain.size()]);
+        return result;
+    }
 
-        final Entry e = new Entry(key, certificateChain);
+    private static CompletableFuture<List<Object>> decodeAsync(final List<String> types, final List<byte[]> contents,
+            final Executor executor, final LoadMonitor monitor) {
+
+        return CompletableFuture.supplyAsync(() -> {
+            final List<Object> result = new ArrayList<>(types.size());
+            for (int i = 0; i < types.size(); i++) {
+                final byte[] content = contents.get(i);
+                try {
+                    final long start = monitor.now();
+                    final Object event = monitor.beginDecode();
+                    result.add(PemReader.decode(types.get(i), content, content.length, monitor.getInterner()));
+                    monitor.decoded(start, event, types.get(i), content.length);
+                } catch (final CertificateException | IOException e) {
+                    throw new CompletionException(e);
+                }
+            }
+            return result;
+        }, executor);
+    }
+
+    /**
+     * Collects decoded PEM objects into entries.
+     * <p>
+     * When chained, all certificates, and the last key, make up a single entry, which gets merged into an existing
+     * entry with the same alias. Otherwise, every certificate becomes its own entry, numbered in the order of the
+     * input.
+     * </p>
+     */
+    private static final class EntryCollector {
+
+        private final Map<String, Entry> result;
+        private final String alias;
+        private final boolean chained;
+
+        private final List<Certificate> chain = new ArrayList<>();
+        private Key key;
+        private int counter;
+
+        private final List<byte[]> encodedChain = new ArrayList<>();
+        private String encodedKeyType;
+        private byte[] encodedKey;
+
+        EntryCollector(final Map<String, Entry> result, final String alias, final boolean chained) {
+            this.result = result;
+            this.alias = alias;
+            this.chained = chained;
+        }
+
+        void add(final Object object) {
+
+            if (object instanceof Certificate) {
+
+                final Certificate cert = (Certificate)object;
+
+                if (this.chained) {
+                    if (cert instanceof X509Certificate) {
+                        this.chain.add(cert);
+                    }
+                } else {
+                    this.result.put(this.alias + "-" + this.counter++, new Entry(null, new Certificate[] { cert }));
+                }
+
+            } else if (object instanceof KeyPair) {
+
+                this.key = ((KeyPair)object).getPrivate();
+
+            } else if (object instanceof PrivateKey) {
+
+                this.key = (PrivateKey)object;
+
+            }
+        }
+
+        void addEncoded(final String type, final byte[] content) throws IOException {
+
+            if (PemReader.isCertificate(type)) {
+
+                if (this.chained) {
+                    this.encodedChain.add(content);
+                } else {
+                    this.result.put(this.alias + "-" + this.counter++,
+                            Entry.encoded(null, null, Collections.singletonList(content)));
+                }
+
+            } else if (PemReader.isKey(type)) {
+
+                this.encodedKeyType = type;
+                this.encodedKey = content;
 
-        result.compute(alias, (k, v) -> {
-            if (v != null) {
-                return v.merge(e);
             } else {
-                return e;
+
+                throw new IOException("Invalid object: " + type);
+
             }
-        });
+        }
 
+        void complete() {
+
+            if (this.encodedKey != null || !this.encodedChain.isEmpty()) {
+                PemUtils.merge(this.result, this.alias,
+                        Entry.encoded(this.encodedKeyType, this.encodedKey, this.encodedChain));
+                return;
+            }
+
+            final Certificate[] certificateChain = this.chain.isEmpty() ? null
+                    : this.chain.toArray(new X509Certificate[this.chain.size()]);
+
+            PemUtils.merge(this.result, this.alias, new Entry(this.key, certificateChain));
+
+        }
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes PEM objects to a stream.
+ * <p>
+ * The content is base64 encoded directly into the stream, using lines of 64 characters and {@code \n} as line
+ * separator, as described in RFC 7468. The writer does not buffer beyond a single line, and does not close or flush the
+ * underlying stream.
+ * </p>
+ */
+final class PemWriter {
+
+    private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private static final int LINE_LENGTH = 64;
+
+    private final OutputStream out;
+    private final byte[] line = new byte[LINE_LENGTH + 1];
+
+    PemWriter(final OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Write a line of explanatory text, which will be ignored when reading.
+     * <p>
+     * Line breaks in the text will be replaced by spaces.
+     * </p>
+     */
+    void writeText(final String text) throws IOException {
+        writeLine(text.replace('\r', ' ').replace('\n', ' '));
+    }
+
+    /**
+     * Write a PEM object.
+     *
+     * @param type the type of the object, e.g. {@code CERTIFICATE}
+     * @param content the binary content
+     */
+    void writeObject(final String type, final byte[] content) throws IOException {
+        writeLine("-----BEGIN " + type + "-----");
+
+        final byte[] line = this.line;
+        int pos = 0;
+        int i = 0;
+
+        // full groups of three bytes
+
+        for (final int full = content.length - content.length % 3; i < full; i += 3) {
+            final int bits = (content[i] & 0xFF) << 16 | (content[i + 1] & 0xFF) << 8 | (content[i + 2] & 0xFF);
+            line[pos++] = ALPHABET[bits >>> 18];
+            line[pos++] = ALPHABET[(bits >>> 12) & 0x3F];
+            line[pos++] = ALPHABET[(bits >>> 6) & 0x3F];
+            line[pos++] = ALPHABET[bits & 0x3F];
+            if (pos == LINE_LENGTH) {
+                line[pos++] = '\n';
+                this.out.write(line, 0, pos);
+                pos = 0;
+            }
+        }
+
+        // remaining bytes, with padding
+
+        final int remaining = content.length - i;
+        if (remaining > 0) {
+            final int bits = (content[i] & 0xFF) << 16 | (remaining == 2 ? (content[i + 1] & 0xFF) << 8 : 0);
+            line[pos++] = ALPHABET[bits >>> 18];
+            line[pos++] = ALPHABET[(bits >>> 12) & 0x3F];
+            line[pos++] = remaining == 2 ? ALPHABET[(bits >>> 6) & 0x3F] : (byte) '=';
+            line[pos++] = '=';
+        }
+
+        if (pos > 0) {
+            line[pos++] = '\n';
+            this.out.write(line, 0, pos);
+        }
+
+        writeLine("-----END " + type + "-----");
+    }
+
+    private void writeLine(final String text) throws IOException {
+        this.out.write(text.getBytes(StandardCharsets.UTF_8));
+        this.out.write('\n');
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.ProviderException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.dentrassi.crypto.pem.AbstractPemKeyStore.Entry;
+
+/**
+ * A pre-parsed snapshot of the entries of a key store.
+ * <p>
+ * A snapshot stores the DER encoded keys and certificates of all entries, so that loading the key store again doesn't
+ * require decoding base64, and re-encoding PKCS#1 keys, any more. Snapshot files get memory mapped, and entries decode
+ * their content from the mapped file on first access.
+ * </p>
+ * <p>
+ * Each snapshot records the kind of key store it was created for, and the SHA-256 fingerprints of its sources. It is
+ * only used if both still match, otherwise the key store falls back to parsing its sources.
+ * </p>
+ * <p>
+ * The file format, all numbers in big endian:
+ * </p>
+ *
+ * <pre>
+ * int      magic ("PEMS")
+ * int      version
+ * string   kind
+ * int      number of sources
+ *   string   name
+ *   byte[32] SHA-256 of the content
+ * int      number of entries
+ *   string   alias
+ *   string   key algorithm, empty if the entry has no key
+ *   int      offset and length of the PKCS#8 encoded key
+ *   int      number of certificates
+ *     int      offset and length of the DER encoded certificate
+ * byte[]   data, offsets are relative to the start of this section
+ * </pre>
+ * <p>
+ * Strings are encoded in UTF-8, prefixed by their length as an unsigned short.
+ * </p>
+ */
+final class Snapshot {
+
+    private static final Logger logger = Logger.getLogger(Snapshot.class.getName());
+
+    private static final int MAGIC = 0x50454D53;
+    private static final int VERSION = 1;
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private Snapshot() {
+    }
+
+    /**
+     * A source of a key store, and its fingerprint.
+     */
+    static final class Source {
+
+        private final String name;
+        private final byte[] fingerprint;
+
+        Source(final String name, final byte[] fingerprint) {
+            this.name = name;
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * Create the fingerprint of a file.
+         */
+        static Source of(final Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                final MessageDigest digest = createDigest();
+                final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+                return new Source(path.toString(), digest.digest());
+            }
+        }
+
+        /**
+         * Create the fingerprint of a configuration source.
+         */
+        static Source of(final String source) throws IOException {
+            try (InputStream in = PemUtils.openResource(source)) {
+                if (in == null) {
+                    throw new NoSuchFileException(source);
+                }
+                final MessageDigest digest = createDigest();
+                final byte[] buffer = new byte[64 * 1024];
+                int len;
+                while ((len = in.read(buffer)) >= 0) {
+                    digest.update(buffer, 0, len);
+                }
+                return new Source(source, digest.digest());
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return this.name.hashCode() * 31 + Arrays.hashCode(this.fingerprint);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Source)) {
+                return false;
+            }
+            final Source other = (Source) obj;
+            return this.name.equals(other.name) && Arrays.equals(this.fingerprint, other.fingerprint);
+        }
+    }
+
+    /**
+     * Read a snapshot.
+     *
+     * @param file the snapshot file
+     * @param kind the kind of the key store
+     * @param sources the current sources of the key store
+     * @return the entries of the snapshot, or {@code null} if there is no valid snapshot for the sources
+     */
+    static Map<String, Entry> read(final Path file, final String kind, final List<Source> sources) {
+
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            // the mapping stays valid after closing the channel
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (final NoSuchFileException e) {
+            return null;
+        } catch (final IOException e) {
+            logger.log(Level.FINE, "Failed to open snapshot", e);
+            return null;
+        }
+
+        try {
+            return read(buffer, kind, sources);
+        } catch (final IOException | BufferUnderflowException | IllegalArgumentException e) {
+            logger.log(Level.FINE, "Ignoring invalid snapshot", e);
+            return null;
+        }
+    }
+
+    private static Map<String, Entry> read(final ByteBuffer buffer, final String kind, final List<Source> sources)
+            throws IOException {
+
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Unsupported snapshot format");
+        }
+
+        if (!kind.equals(readString(buffer))) {
+            return null;
+        }
+
+        final int numberOfSources = buffer.getInt();
+        if (numberOfSources != sources.size()) {
+            return null;
+        }
+        for (final Source source : sources) {
+            final String name = readString(buffer);
+            final byte[] fingerprint = new byte[32];
+            buffer.get(fingerprint);
+            if (!source.equals(new Source(name, fingerprint))) {
+                return null;
+            }
+        }
+
+        final int numberOfEntries = buffer.getInt();
+        final List<EntryRecord> records = new ArrayList<>(numberOfEntries);
+        for (int i = 0; i < numberOfEntries; i++) {
+            final String alias = readString(buffer);
+            final String keyAlgorithm = readString(buffer);
+            final int keyOffset = buffer.getInt();
+            final int keyLength = buffer.getInt();
+            final int numberOfCertificates = buffer.getInt();
+            final int[] certificates = new int[numberOfCertificates * 2];
+            for (int j = 0; j < certificates.length; j++) {
+                certificates[j] = buffer.getInt();
+            }
+            records.add(new EntryRecord(alias, keyAlgorithm, keyOffset, keyLength, certificates));
+        }
+
+        final ByteBuffer data = buffer.slice();
+
+        final Map<String, Entry> result = new HashMap<>(Math.max(16, (int) (numberOfEntries / 0.75f) + 1));
+        for (final EntryRecord record : records) {
+            result.put(record.alias, record.toEntry(data));
+        }
+        return result;
+    }
+
+    /**
+     * Write a snapshot.
+     * <p>
+     * The snapshot is written to a temporary file first, and then moved into place. The file is only readable by its
+     * owner, if the file system supports this, as it contains the private keys of the key store.
+     * </p>
+     * <p>
+     * Failing to write the snapshot will only be logged, as the key store can still be used.
+     * </p>
+     *
+     * @param file the snapshot file
+     * @param kind the kind of the key store
+     * @param sources the sources the entries have been loaded from
+     * @param entries the entries to store
+     */
+    static void write(final Path file, final String kind, final List<Source> sources,
+            final Map<String, Entry> entries) {
+
+        try {
+            final Path dir = file.toAbsolutePath().getParent();
+            final Path temp = createTempFile(dir, file.getFileName().toString());
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    write(out, kind, sources, entries);
+                }
+                move(temp, file);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (final Exception e) {
+            logger.log(Level.WARNING, "Failed to write snapshot: " + file, e);
+        }
+    }
+
+    private static Path createTempFile(final Path dir, final String name) throws IOException {
+        try {
+            return Files.createTempFile(dir, name, ".tmp",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (final UnsupportedOperationException e) {
+            return Files.createTempFile(dir, name, ".tmp");
+        }
+    }
+
+    private static void move(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void write(final OutputStream stream, final String kind, final List<Source> sources,
+            final Map<String, Entry> entries) throws IOException, CertificateEncodingException {
+
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+        final DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeString(out, kind);
+
+        out.writeInt(sources.size());
+        for (final Source source : sources) {
+            writeString(out, source.name);
+            out.write(source.fingerprint);
+        }
+
+        out.writeInt(entries.size());
+        for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+            writeString(out, entry.getKey());
+
+            final Key key = entry.getValue().getKey();
+            if (key != null) {
+                if (!(key instanceof PrivateKey) || !"PKCS#8".equals(key.getFormat())) {
+                    throw new IOException("Unsupported key: " + key.getAlgorithm() + "/" + key.getFormat());
+                }
+                writeString(out, key.getAlgorithm());
+                writeData(out, data, key.getEncoded());
+            } else {
+                writeString(out, "");
+                out.writeInt(0);
+                out.writeInt(0);
+            }
+
+            final Certificate[] chain = entry.getValue().getCertificateChain();
+            if (chain != null) {
+                out.writeInt(chain.length);
+                for (final Certificate certificate : chain) {
+                    writeData(out, data, certificate.getEncoded());
+                }
+            } else {
+                out.writeInt(0);
+            }
+        }
+
+        data.writeTo(out);
+        out.flush();
+    }
+
+    private static void writeData(final DataOutputStream out, final ByteArrayOutputStream data, final byte[] content)
+            throws IOException {
+        out.writeInt(data.size());
+        out.writeInt(content.length);
+        data.write(content);
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("String too long");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new ProviderException(e);
+        }
+    }
+
+    private static final class EntryRecord {
+
+        private final String alias;
+        private final String keyAlgorithm;
+        private final int keyOffset;
+        private final int keyLength;
+        private final int[] certificates;
+
+        EntryRecord(final String alias, final String keyAlgorithm, final int keyOffset, final int keyLength,
+                final int[] certificates) {
+            this.alias = alias;
+            this.keyAlgorithm = keyAlgorithm;
+            this.keyOffset = keyOffset;
+            this.keyLength = keyLength;
+            this.certificates = certificates;
+        }
+
+        Entry toEntry(final ByteBuffer data) throws IOException {
+
+            Lazy<Key> key = null;
+            if (!this.keyAlgorithm.isEmpty()) {
+                checkBounds(data, this.keyOffset, this.keyLength);
+                final String algorithm = this.keyAlgorithm;
+                final int offset = this.keyOffset;
+                final int length = this.keyLength;
+                key = Lazy.decode(() -> {
+                    final PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(copy(data, offset, length));
+                    return FactoryPool.KEY_FACTORIES.apply(algorithm, factory -> factory.generatePrivate(keySpec));
+                });
+            }
+
+            Lazy<Certificate[]> certificateChain = null;
+            if (this.certificates.length > 0) {
+                for (int i = 0; i < this.certificates.length; i += 2) {
+                    checkBounds(data, this.certificates[i], this.certificates[i + 1]);
+                }
+                final int[] certificates = this.certificates;
+                final CertificateInterner interner = LoadMonitor.current().getInterner();
+                certificateChain = Lazy.decode(() -> {
+                    final Certificate[] result = new X509Certificate[certificates.length / 2];
+                    for (int i = 0; i < result.length; i++) {
+                        result[i] = PemReader.decodeCertificate(
+                                copy(data, certificates[i * 2], certificates[i * 2 + 1]), interner);
+                    }
+                    return result;
+                });
+            }
+
+            return Entry.decoding(key, certificateChain);
+        }
+
+        private static void checkBounds(final ByteBuffer data, final int offset, final int length)
+                throws IOException {
+            if (offset < 0 || length < 0 || offset > data.limit() - length) {
+                throw new IOException("Invalid data reference");
+            }
+        }
+
+        private static byte[] copy(final ByteBuffer data, final int offset, final int length) {
+            final byte[] result = new byte[length];
+            final ByteBuffer view = data.duplicate();
+            view.position(offset);
+            view.get(result);
+            return result;
+        }
+    }
+}
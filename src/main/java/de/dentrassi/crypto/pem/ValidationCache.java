@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.ProviderException;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded cache of successful certificate chain validations.
+ * <p>
+ * Results are keyed by the SHA-256 fingerprint of the encoded chain, and the parameters of the validation. A result
+ * expires when the first certificate of the chain expires, or when its time to live is exceeded, whichever comes
+ * first. When the cache is full, the least recently used result is evicted.
+ * </p>
+ * <p>
+ * Instances are thread safe.
+ * </p>
+ */
+final class ValidationCache {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final long timeToLive;
+
+    private final Map<Key, Long> results;
+
+    /**
+     * Create a new cache.
+     *
+     * @param maximumSize the maximum number of results to keep
+     * @param timeToLive the maximum time, in milliseconds, to keep a result
+     */
+    ValidationCache(final int maximumSize, final long timeToLive) {
+        this.timeToLive = timeToLive;
+        this.results = new LinkedHashMap<Key, Long>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Long> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Create the key for validating a chain.
+     *
+     * @param chain the chain to validate
+     * @param parameters the parameters which influence the result of the validation, compared using
+     *        {@link Object#equals(Object)}
+     * @return the key, or {@code null} if the chain cannot be encoded
+     */
+    static Key key(final X509Certificate[] chain, final List<Object> parameters) {
+        try {
+            final byte[] fingerprint = FactoryPool.MESSAGE_DIGESTS.apply(DIGEST_ALGORITHM, digest -> {
+                for (final X509Certificate certificate : chain) {
+                    digest.update(certificate.getEncoded());
+                }
+                return digest.digest();
+            });
+            return new Key(fingerprint, parameters);
+        } catch (final CertificateEncodingException e) {
+            return null;
+        } catch (final NoSuchAlgorithmException e) {
+            throw new ProviderException(e);
+        }
+    }
+
+    /**
+     * Check if a successful validation result is cached.
+     *
+     * @param key the key of the validation
+     * @param now the current time, in milliseconds
+     * @return {@code true} if the chain was successfully validated before, and the result has not yet expired
+     */
+    synchronized boolean isValid(final Key key, final long now) {
+        final Long expires = this.results.get(key);
+        if (expires == null) {
+            return false;
+        }
+        if (expires < now) {
+            this.results.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record a successful validation.
+     *
+     * @param key the key of the validation
+     * @param chain the chain which was validated
+     * @param now the current time, in milliseconds
+     */
+    synchronized void put(final Key key, final X509Certificate[] chain, final long now) {
+        long expires = this.timeToLive > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + this.timeToLive;
+        for (final X509Certificate certificate : chain) {
+            expires = Math.min(expires, certificate.getNotAfter().getTime());
+        }
+        if (expires >= now) {
+            this.results.put(key, expires);
+        }
+    }
+
+    synchronized int size() {
+        return this.results.size();
+    }
+
+    static final class Key {
+
+        private final byte[] fingerprint;
+        private final List<Object> parameters;
+        private final int hash;
+
+        private Key(final byte[] fingerprint, final List<Object> parameters) {
+            this.fingerprint = fingerprint;
+            this.parameters = parameters;
+            this.hash = 31 * Arrays.hashCode(fingerprint) + parameters.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return Arrays.equals(this.fingerprint, other.fingerprint) && this.parameters.equals(other.parameters);
+        }
+    }
+}
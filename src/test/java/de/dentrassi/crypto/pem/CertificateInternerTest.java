@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ *******************************************************************************/
+package de.dentrassi.crypto.pem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class CertificateInternerTest {
+
+    private static KeyStore load(final Path path, final boolean shared) throws Exception {
+        final KeyStore ks = KeyStore.getInstance("PEM", new PemKeyStoreProvider());
+        ks.load(new PemLoadParameter(path).withSharedCertificates(shared));
+        return ks;
+    }
+
+    /**
+     * Test that the same certificate is shared between key stores, when requested.
+     */
+    @Test
+    public void testSharedBetweenKeyStores() throws Exception {
+        final Path path = Paths.get("src/test/resources/fullchain1.pem");
+        final KeyStore ks1 = load(path, true);
+        final KeyStore ks2 = load(path, true);
+
+        final Certificate[] chain1 = ks1.getCertificateChain("pem");
+        final Certificate[] chain2 = ks2.getCertificateChain("pem");
+
+        assertThat(chain1).hasSameSizeAs(chain2);
+        for (int i = 0; i < chain1.length; i++) {
+            assertThat(chain1[i]).isSameAs(chain2[i]);
+        }
+    }
+
+    /**
+     * Test that the decoder is only called for certificates which are not known yet.
+     */
+    @Test
+    public void testDecodedOnce() throws Exception {
+        final byte[] encoded;
+        try (InputStream input = Files.newInputStream(Paths.get("src/test/resources/ca.crt"))) {
+            encoded = CertificateFactory.getInstance("X.509").generateCertificate(input).getEncoded();
+        }
+
+        // pad the buffer, only the given length must be used
+
+        final byte[] buffer = new byte[encoded.length + 16];
+        System.arraycopy(encoded, 0, buffer, 0, encoded.length);
+
+        final AtomicInteger decoded = new AtomicInteger();
+        final CertificateInterner.Decoder decoder = () -> {
+            decoded.incrementAndGet();
+            return CertificateFactory.getInstance("X.509")
+                    .generateCertificate(new ByteArrayInputStream(encoded));
+        };
+
+        final CertificateInterner interner = new CertificateInterner();
+        final Certificate first = interner.intern(buffer, encoded.length, decoder);
+        final Certificate second = interner.intern(buffer, encoded.length, decoder);
+
+        assertThat(second).isSameAs(first);
+        assertThat(decoded.get()).isEqualTo(1);
+        assertThat(interner.size()).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ */
+
+package de.dentrassi.crypto.pem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+
+import org.junit.jupiter.api.Test;
+
+public class FactoryPoolTest {
+
+    @Test
+    public void testReuse() throws Exception {
+        final KeyFactory first = FactoryPool.KEY_FACTORIES.apply("RSA", factory -> factory);
+        final KeyFactory second = FactoryPool.KEY_FACTORIES.apply("RSA", factory -> factory);
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    public void testNested() throws Exception {
+        // an instance must not be handed out while being in use
+
+        FactoryPool.KEY_FACTORIES.apply("EC", outer -> {
+            final KeyFactory inner = FactoryPool.KEY_FACTORIES.apply("EC", factory -> factory);
+            assertThat(inner).isNotSameAs(outer);
+            assertThat(inner.getAlgorithm()).isEqualTo("EC");
+            return null;
+        });
+    }
+
+    @Test
+    public void testUnknownAlgorithm() {
+        assertThrows(NoSuchAlgorithmException.class,
+                () -> FactoryPool.KEY_FACTORIES.apply("no-such-algorithm", factory -> factory));
+    }
+
+}
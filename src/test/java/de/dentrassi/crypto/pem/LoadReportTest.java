@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ *******************************************************************************/
+package de.dentrassi.crypto.pem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class LoadReportTest {
+
+    private static LoadReport load(final String type, final PemLoadParameter parameter) throws Exception {
+        final List<LoadReport> reports = new ArrayList<>();
+        final KeyStore ks = KeyStore.getInstance(type, new PemKeyStoreProvider());
+        ks.load(parameter.withReportListener(reports::add));
+        assertThat(reports).hasSize(1);
+        assertThat(reports.get(0).getEntries()).isEqualTo(ks.size());
+        return reports.get(0);
+    }
+
+    @Test
+    public void testBundle() throws Exception {
+
+        final LoadReport report = load("PEMCA", new PemLoadParameter(Paths.get("src/test/resources/tls.crt")));
+
+        assertThat(report.getCertificates()).isEqualTo(3);
+        assertThat(report.getKeys()).isZero();
+        assertThat(report.getSources()).isZero();
+        assertThat(report.getBytesDecoded()).isPositive();
+        assertThat(report.getScanTime()).isGreaterThan(Duration.ZERO);
+        assertThat(report.getCertificateTime()).isGreaterThan(Duration.ZERO);
+        assertThat(report.getKeyTime()).isEqualTo(Duration.ZERO);
+        assertThat(report.getTotalTime()).isGreaterThanOrEqualTo(report.getCertificateTime());
+
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final LoadReport report = load("PEM",
+                    new PemLoadParameter(Paths.get("src/test/resources/privkey1.pem")).withExecutor(executor));
+
+            assertThat(report.getKeys()).isEqualTo(1);
+            assertThat(report.getKeyTime()).isGreaterThan(Duration.ZERO);
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
+    @Test
+    public void testConfiguration() throws Exception {
+
+        final LoadReport report = load("PEMCFG", new PemLoadParameter(Paths.get("src/test/resources/tls.properties")));
+
+        assertThat(report.getSources()).isEqualTo(2);
+        assertThat(report.getCertificates()).isEqualTo(3);
+        assertThat(report.getKeys()).isEqualTo(1);
+        assertThat(report.getBytesRead()).isEqualTo(Files.size(Paths.get("src/test/resources/tls.key"))
+                + Files.size(Paths.get("src/test/resources/tls.crt")));
+        assertThat(report.getReadTime()).isGreaterThan(Duration.ZERO);
+
+    }
+
+    @Test
+    public void testEvents(@TempDir final Path dir) throws Exception {
+
+        final Path file = dir.resolve("recording.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("de.dentrassi.crypto.pem.Load");
+            recording.enable("de.dentrassi.crypto.pem.Decode");
+            recording.enable("de.dentrassi.crypto.pem.Source");
+            recording.start();
+
+            try (InputStream stream = Files.newInputStream(Paths.get("src/test/resources/tls.properties"))) {
+                KeyStore.getInstance("PEMCFG", new PemKeyStoreProvider()).load(stream, null);
+            }
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("de.dentrassi.crypto.pem."))
+                // ignore background activity, like reloading key stores of other tests
+                .filter(event -> event.getThread().getJavaThreadId() == Thread.currentThread().getId())
+                .collect(Collectors.toList());
+
+        final List<String> names = events.stream()
+                .map(event -> event.getEventType().getName().substring("de.dentrassi.crypto.pem.".length()))
+                .collect(Collectors.toList());
+
+        assertThat(names).containsExactlyInAnyOrder("Load", "Source", "Source", "Decode", "Decode", "Decode", "Decode");
+
+        for (final RecordedEvent event : events) {
+            switch (event.getEventType().getName()) {
+                case "de.dentrassi.crypto.pem.Load":
+                    assertThat(event.getBoolean("success")).isTrue();
+                    assertThat(event.getInt("entries")).isEqualTo(1);
+                    assertThat(event.getString("keyStore")).isEqualTo(PemConfigKeyStore.Immutable.class.getName());
+                    break;
+                case "de.dentrassi.crypto.pem.Decode":
+                    assertThat(event.getString("objectType")).isIn("CERTIFICATE", "RSA PRIVATE KEY", "PRIVATE KEY");
+                    assertThat(event.getInt("bytes")).isPositive();
+                    assertThat(event.getDuration()).isGreaterThan(Duration.ZERO);
+                    break;
+                default:
+                    assertThat(event.getLong("bytes")).isPositive();
+                    assertThat(event.getDuration()).isGreaterThan(Duration.ZERO);
+                    break;
+            }
+        }
+
+    }
+
+}
@@ -11,14 +11,26 @@
 package de.dentrassi.crypto.pem;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.Security;
 import java.security.cert.Certificate;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -146,4 +158,213 @@ public class MutableTest {
 
     }
 
+    /**
+     * Test the reverse lookup of certificate aliases, when mutating the keystore.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = { "PEM.MOD", "PEMCA.MOD", "PEMCFG.MOD" })
+    public void testCertificateAlias(final String type) throws Exception {
+
+        // load two copies of the same certificate, being different instances
+
+        final Certificate cert1 = loadFrom("PEM", "/test1.crt").getCertificate("pem");
+        final Certificate cert2 = loadFrom("PEM", "/test2.crt").getCertificate("pem");
+        final Certificate cert1Copy = loadFrom("PEMCA", "/tls.crt").getCertificate("pem-0");
+
+        assertEquals(cert1, cert1Copy);
+
+        final KeyStore ks = KeyStore.getInstance(type, "PEM");
+        ks.load(null, null);
+
+        ks.setCertificateEntry("cert1", cert1);
+        assertEquals("cert1", ks.getCertificateAlias(cert1Copy));
+        assertNull(ks.getCertificateAlias(cert2));
+
+        // replace the entry
+
+        ks.setCertificateEntry("cert1", cert2);
+        assertNull(ks.getCertificateAlias(cert1));
+        assertEquals("cert1", ks.getCertificateAlias(cert2));
+
+        // add a second entry with the same certificate, and delete the first
+
+        ks.setCertificateEntry("cert2", cert2);
+        ks.deleteEntry("cert1");
+        assertEquals("cert2", ks.getCertificateAlias(cert2));
+
+    }
+
+    /**
+     * Test the reverse lookup of certificate aliases, when multiple entries have the same certificate.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = { "PEM.MOD", "PEMCA.MOD", "PEMCFG.MOD" })
+    public void testCertificateAliasDuplicates(final String type) throws Exception {
+
+        final Certificate cert1 = loadFrom("PEM", "/test1.crt").getCertificate("pem");
+        final Certificate cert2 = loadFrom("PEM", "/test2.crt").getCertificate("pem");
+
+        final KeyStore ks = KeyStore.getInstance(type, "PEM");
+        ks.load(null, null);
+
+        ks.setCertificateEntry("a", cert1);
+        ks.setCertificateEntry("b", cert1);
+        ks.setCertificateEntry("c", cert1);
+        assertEquals("a", ks.getCertificateAlias(cert1));
+
+        // replacing the entry reporting the certificate, hands it over to the next one
+
+        ks.setCertificateEntry("a", cert2);
+        assertEquals("b", ks.getCertificateAlias(cert1));
+        assertEquals("a", ks.getCertificateAlias(cert2));
+
+        ks.deleteEntry("c");
+        assertEquals("b", ks.getCertificateAlias(cert1));
+
+        ks.deleteEntry("b");
+        assertNull(ks.getCertificateAlias(cert1));
+
+    }
+
+    /**
+     * Test reading from the keystore, while entries get added and removed concurrently.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = { "PEM.MOD", "PEMCA.MOD", "PEMCFG.MOD" })
+    public void testConcurrentMutation(final String type) throws Exception {
+
+        final Certificate cert = loadFrom("PEM", "/test1.crt").getCertificate("pem");
+        final Certificate fixed = loadFrom("PEM", "/test2.crt").getCertificate("pem");
+
+        final KeyStore ks = KeyStore.getInstance(type, "PEM");
+        ks.load(null, null);
+        ks.setCertificateEntry("fixed", fixed);
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    ks.setCertificateEntry("entry-" + i, cert);
+                    if (i % 2 == 0) {
+                        ks.deleteEntry("entry-" + i);
+                    }
+                }
+                running.set(false);
+                return null;
+            });
+
+            final Callable<Void> reader = () -> {
+                while (running.get()) {
+                    // enumerating aliases must work on a consistent state
+                    for (final String alias : Collections.list(ks.aliases())) {
+                        ks.isCertificateEntry(alias);
+                    }
+                    assertEquals("fixed", ks.getCertificateAlias(fixed));
+                }
+                return null;
+            };
+
+            final Future<?> reader1 = executor.submit(reader);
+            final Future<?> reader2 = executor.submit(reader);
+
+            writer.get(30, TimeUnit.SECONDS);
+            reader1.get(30, TimeUnit.SECONDS);
+            reader2.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2_501, ks.size());
+
+    }
+
+    /**
+     * Test storing a PEM keystore, and reading it back.
+     */
+    @Test
+    public void testStore() throws Exception {
+
+        final KeyStore source = loadFrom("PEMCFG", "/tls.properties");
+
+        final KeyStore ks = KeyStore.getInstance("PEM.MOD", "PEM");
+        ks.load(null, null);
+        ks.setKeyEntry("pem", source.getKey("keycert", null), null, source.getCertificateChain("keycert"));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ks.store(out, null);
+
+        // the output must be deterministic
+
+        final ByteArrayOutputStream out2 = new ByteArrayOutputStream();
+        ks.store(out2, null);
+        assertArrayEquals(out.toByteArray(), out2.toByteArray());
+
+        // read back with the same type
+
+        final KeyStore result = KeyStore.getInstance("PEM.MOD", "PEM");
+        result.load(new ByteArrayInputStream(out.toByteArray()), null);
+
+        assertEquals(Collections.singletonList("pem"), Collections.list(result.aliases()));
+        assertEquals(ks.getKey("pem", null), result.getKey("pem", null));
+        assertArrayEquals(ks.getCertificateChain("pem"), result.getCertificateChain("pem"));
+
+        // other aliases would get lost
+
+        ks.setCertificateEntry("another", loadFrom("PEM", "/test2.crt").getCertificate("pem"));
+        assertThatThrownBy(() -> ks.store(new ByteArrayOutputStream(), null))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("another");
+
+    }
+
+    /**
+     * Test storing a CA bundle, and reading it back.
+     */
+    @Test
+    public void testStoreBundle() throws Exception {
+
+        final KeyStore ks = loadFrom("PEMCA.MOD", "/tls.crt");
+        ks.setCertificateEntry("pem-" + (ks.size() - 1), loadFrom("PEM", "/test2.crt").getCertificate("pem"));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ks.store(out, null);
+
+        final KeyStore result = KeyStore.getInstance("PEMCA.MOD", "PEM");
+        result.load(new ByteArrayInputStream(out.toByteArray()), null);
+
+        assertEquals(ks.size(), result.size());
+        for (final String alias : Collections.list(ks.aliases())) {
+            assertArrayEquals(ks.getCertificateChain(alias), result.getCertificateChain(alias), alias);
+        }
+
+        // storing again gives the same output
+
+        final ByteArrayOutputStream out2 = new ByteArrayOutputStream();
+        result.store(out2, null);
+        assertArrayEquals(out.toByteArray(), out2.toByteArray());
+
+        // aliases which would be numbered differently when loading
+
+        ks.deleteEntry("pem-0");
+        assertThatThrownBy(() -> ks.store(new ByteArrayOutputStream(), null))
+                .isInstanceOf(IOException.class);
+
+    }
+
+    /**
+     * Test that key stores loading a configuration can't be stored.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = { "PEMCFG.MOD", "PEMDIR.MOD" })
+    public void testStoreUnsupported(final String type) throws Exception {
+
+        final KeyStore ks = KeyStore.getInstance(type, "PEM");
+        ks.load(null, null);
+
+        assertThatThrownBy(() -> ks.store(new ByteArrayOutputStream(), null))
+                .isInstanceOf(IOException.class);
+
+    }
+
 }
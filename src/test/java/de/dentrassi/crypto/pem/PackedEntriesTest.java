@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ *******************************************************************************/
+package de.dentrassi.crypto.pem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.dentrassi.crypto.pem.AbstractPemKeyStore.Entry;
+
+public class PackedEntriesTest {
+
+    private static byte[] encoded(final String file) throws Exception {
+        try (InputStream input = Files.newInputStream(Paths.get(file))) {
+            return CertificateFactory.getInstance("X.509").generateCertificate(input).getEncoded();
+        }
+    }
+
+    /**
+     * Test looking up many entries, including aliases which are not ASCII.
+     */
+    @Test
+    public void testLookup() throws Exception {
+        final byte[] content = encoded("src/test/resources/ca.crt");
+
+        final PackedEntries.Builder builder = new PackedEntries.Builder(1000 * (content.length + 32));
+        final List<String> aliases = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final String alias = (i % 2 == 0 ? "pem-" : "zertifikat-ä-") + i;
+            aliases.add(alias);
+            builder.add(alias, content, content.length);
+        }
+        final PackedEntries entries = builder.build();
+
+        assertThat(entries).hasSize(1000);
+        assertThat(entries.keySet()).containsExactlyElementsOf(aliases);
+        assertThat(entries.getDataSize()).isGreaterThan(1000 * content.length);
+
+        for (final String alias : aliases) {
+            assertThat(entries.containsKey(alias)).isTrue();
+            assertThat(entries.get(alias).getEncodedCertificate()).isEqualTo(content);
+        }
+
+        assertThat(entries.containsKey("pem-1")).isFalse();
+        assertThat(entries.get("pem-1000")).isNull();
+        assertThat(entries.get(null)).isNull();
+    }
+
+    /**
+     * Test that an empty map works.
+     */
+    @Test
+    public void testEmpty() {
+        final Map<String, Entry> entries = new PackedEntries.Builder(0).build();
+
+        assertThat(entries).isEmpty();
+        assertThat(entries.get("pem-0")).isNull();
+    }
+
+    /**
+     * Test that duplicate aliases are rejected.
+     */
+    @Test
+    public void testDuplicateAlias() throws Exception {
+        final byte[] content = encoded("src/test/resources/ca.crt");
+
+        final PackedEntries.Builder builder = new PackedEntries.Builder(64 * 1024);
+        builder.add("pem-0", content, content.length);
+        builder.add("pem-0", content, content.length);
+
+        assertThatThrownBy(builder::build).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Test that repeated access to an entry doesn't decode its certificate again.
+     */
+    @Test
+    public void testCached() throws Exception {
+        final byte[] content = encoded("src/test/resources/ca.crt");
+
+        final PackedEntries.Builder builder = new PackedEntries.Builder(64 * 1024);
+        builder.add("pem-0", content, content.length);
+        final PackedEntries entries = builder.build();
+
+        final Entry entry = entries.get("pem-0");
+        assertThat(entries.get("pem-0")).isSameAs(entry);
+        assertThat(entries.get("pem-0").getCertificate()).isSameAs(entry.getCertificate());
+    }
+
+    /**
+     * Test looking up the alias of a certificate, reporting the first entry if there are duplicates.
+     */
+    @Test
+    public void testCertificateAlias() throws Exception {
+        final byte[] ca = encoded("src/test/resources/ca.crt");
+        final byte[] test1 = encoded("src/test/resources/test1.crt");
+        final byte[] test2 = encoded("src/test/resources/test2.crt");
+
+        final PackedEntries.Builder builder = new PackedEntries.Builder(64 * 1024);
+        builder.add("pem-0", test1, test1.length);
+        builder.add("pem-1", ca, ca.length);
+        builder.add("pem-2", test1, test1.length);
+        builder.addEmpty("pem");
+        final PackedEntries entries = builder.build();
+
+        final CertificateFactory factory = CertificateFactory.getInstance("X.509");
+        assertThat(entries.getCertificateAlias(factory.generateCertificate(new ByteArrayInputStream(test1))))
+                .isEqualTo("pem-0");
+        assertThat(entries.getCertificateAlias(factory.generateCertificate(new ByteArrayInputStream(ca))))
+                .isEqualTo("pem-1");
+        assertThat(entries.getCertificateAlias(factory.generateCertificate(new ByteArrayInputStream(test2))))
+                .isNull();
+    }
+
+    /**
+     * Test that a builder which is used up to its capacity uses all of the buffer.
+     */
+    @Test
+    public void testCapacity() throws Exception {
+        final byte[] content = encoded("src/test/resources/ca.crt");
+
+        final PackedEntries.Builder builder = new PackedEntries.Builder(1000 * (content.length + 8));
+        for (int i = 0; i < 1000; i++) {
+            builder.add(String.format("pem-%04d", i), content, content.length);
+        }
+
+        assertThat(builder.build().getDataSize()).isEqualTo(1000 * (content.length + 8));
+    }
+
+    /**
+     * Test that a builder doesn't grow beyond its capacity.
+     */
+    @Test
+    public void testCapacityExceeded() throws Exception {
+        final byte[] content = encoded("src/test/resources/ca.crt");
+
+        final PackedEntries.Builder builder = new PackedEntries.Builder(content.length);
+
+        assertThatThrownBy(() -> builder.add("pem-0", content, content.length))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Test loading a bundle lazily, which keeps the certificates in packed entries.
+     */
+    @Test
+    public void testLoadBundle(@TempDir final Path dir) throws Exception {
+        final Path bundle = dir.resolve("bundle.pem");
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append(new String(Files.readAllBytes(Paths.get("src/test/resources/fullchain1.pem")),
+                    StandardCharsets.US_ASCII));
+        }
+        Files.write(bundle, sb.toString().getBytes(StandardCharsets.US_ASCII));
+
+        final KeyStore expected = KeyStore.getInstance("PEMCA", new PemKeyStoreProvider());
+        expected.load(new PemLoadParameter(bundle));
+
+        final KeyStore actual = KeyStore.getInstance("PEMCA", new PemKeyStoreProvider());
+        actual.load(new PemLoadParameter(bundle).withLazyDecoding(true));
+
+        assertThat(actual.size()).isEqualTo(expected.size());
+        assertThat(Collections.list(actual.aliases()))
+                .containsExactlyInAnyOrderElementsOf(Collections.list(expected.aliases()));
+
+        for (final String alias : Collections.list(expected.aliases())) {
+            final Certificate certificate = actual.getCertificate(alias);
+            assertThat(certificate).isEqualTo(expected.getCertificate(alias));
+            if (certificate != null) {
+                assertThat(actual.getCertificateAlias(certificate)).startsWith("pem-");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ *******************************************************************************/
+package de.dentrassi.crypto.pem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.cert.CertPathBuilder;
+import java.security.cert.CertStore;
+import java.security.cert.Certificate;
+import java.security.cert.PKIXBuilderParameters;
+import java.security.cert.PKIXCertPathBuilderResult;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509CertSelector;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PemCertStoreTest {
+
+    private KeyStore bundle;
+    private CertStore store;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        load("/tls.crt");
+    }
+
+    private void load(final String resource) throws Exception {
+        this.bundle = KeyStore.getInstance("PEMCA", new PemKeyStoreProvider());
+        try (InputStream in = PemCertStoreTest.class.getResourceAsStream(resource)) {
+            this.bundle.load(in, null);
+        }
+        this.store = CertStore.getInstance("PEM", new PemCertStoreParameters(this.bundle), new PemKeyStoreProvider());
+    }
+
+    private X509Certificate get(final String alias) throws Exception {
+        return (X509Certificate) this.bundle.getCertificate(alias);
+    }
+
+    @Test
+    public void testAll() throws Exception {
+        assertThat(this.store.getCertificates(null)).hasSize(3);
+        assertThat(this.store.getCertificates(new X509CertSelector())).hasSize(3);
+    }
+
+    @Test
+    public void testBySubject() throws Exception {
+        final X509CertSelector selector = new X509CertSelector();
+        selector.setSubject(get("pem-1").getSubjectX500Principal());
+
+        assertThat(select(selector)).containsExactly(get("pem-1"));
+    }
+
+    @Test
+    public void testByIssuer() throws Exception {
+        final X509CertSelector selector = new X509CertSelector();
+        selector.setIssuer(get("pem-1").getSubjectX500Principal());
+
+        assertThat(select(selector)).containsExactly(get("pem-0"));
+    }
+
+    @Test
+    public void testBySubjectKeyIdentifier() throws Exception {
+        load("/keyid-chain.crt");
+        final X509Certificate ca = get("pem-1");
+
+        final X509CertSelector selector = new X509CertSelector();
+        selector.setSubjectKeyIdentifier(unwrap(ca.getExtensionValue("2.5.29.14")));
+
+        assertThat(select(selector)).containsExactly(ca);
+    }
+
+    @Test
+    public void testByAuthorityKeyIdentifier() throws Exception {
+        load("/keyid-chain.crt");
+        final X509Certificate leaf = get("pem-0");
+
+        final X509CertSelector selector = new X509CertSelector();
+        selector.setAuthorityKeyIdentifier(unwrap(leaf.getExtensionValue("2.5.29.35")));
+
+        assertThat(select(selector)).containsExactly(leaf);
+    }
+
+    @Test
+    public void testBuildPath() throws Exception {
+        final X509CertSelector target = new X509CertSelector();
+        target.setCertificate(get("pem-0"));
+
+        final PKIXBuilderParameters params = new PKIXBuilderParameters(
+                Collections.singleton(new TrustAnchor(get("pem-2"), null)), target);
+        params.setRevocationEnabled(false);
+        params.addCertStore(this.store);
+
+        final PKIXCertPathBuilderResult result = (PKIXCertPathBuilderResult) CertPathBuilder.getInstance("PKIX")
+                .build(params);
+
+        assertThat(new ArrayList<Certificate>(result.getCertPath().getCertificates())).containsExactly(get("pem-0"), get("pem-1"));
+    }
+
+    private List<Certificate> select(final X509CertSelector selector) throws Exception {
+        return new ArrayList<>(this.store.getCertificates(selector));
+    }
+
+    /**
+     * Remove the outer octet string (with a short length) of an extension value.
+     */
+    private static byte[] unwrap(final byte[] value) {
+        assertThat(value).isNotNull();
+        return Arrays.copyOfRange(value, 2, value.length);
+    }
+
+}
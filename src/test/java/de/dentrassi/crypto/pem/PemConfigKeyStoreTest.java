@@ -10,19 +10,36 @@
  *******************************************************************************/
 package de.dentrassi.crypto.pem;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.Security;
 import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Properties;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class PemConfigKeyStoreTest {
 
@@ -55,4 +72,238 @@ public class PemConfigKeyStoreTest {
         assertNotNull(key);
 
     }
+
+    @Test
+    public void testReload(@TempDir final Path dir) throws Exception {
+
+        final Path key = dir.resolve("tls.key");
+        final Path cert = dir.resolve("tls.crt");
+        Files.copy(Paths.get("src/test/resources/tls.key"), key);
+        Files.copy(Paths.get("src/test/resources/test1.crt"), cert);
+
+        final Properties p = new Properties();
+        p.setProperty("alias", "keycert");
+        p.setProperty("source.key", key.toString());
+        p.setProperty("source.cert", cert.toString());
+        p.setProperty("reload.period", "50");
+
+        final KeyStore ks = KeyStore.getInstance("PEMCFG");
+        ks.load(toStream(p), null);
+
+        try {
+            assertEquals("CN=Test 1", ((X509Certificate) ks.getCertificate("keycert")).getSubjectX500Principal().getName());
+
+            // replace the certificate
+
+            Files.copy(Paths.get("src/test/resources/test2.crt"), cert, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(cert, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+
+            final long timeout = System.currentTimeMillis() + 5_000;
+            while (!"CN=Test 2".equals(((X509Certificate) ks.getCertificate("keycert")).getSubjectX500Principal().getName())) {
+                assertTrue(System.currentTimeMillis() < timeout, "Certificate must be reloaded");
+                Thread.sleep(20);
+            }
+
+            assertNotNull(ks.getKey("keycert", null));
+        } finally {
+            // stop reloading
+            ks.load(null, null);
+        }
+
+        assertEquals(0, ks.size());
+
+    }
+
+    @Test
+    public void testReloadMutable() throws Exception {
+
+        final Properties p = new Properties();
+        p.setProperty("alias", "keycert");
+        p.setProperty("source.cert", "src/test/resources/test1.crt");
+        p.setProperty("reload.period", "50");
+
+        final KeyStore ks = KeyStore.getInstance("PEMCFG.MOD");
+        final IOException e = assertThrows(IOException.class, () -> ks.load(toStream(p), null));
+        assertTrue(e.getMessage().contains("reload.period"));
+
+    }
+
+    @Test
+    public void testReloadInvalidPeriod() throws Exception {
+
+        final Properties p = new Properties();
+        p.setProperty("alias", "keycert");
+        p.setProperty("source.cert", "src/test/resources/test1.crt");
+        p.setProperty("reload.period", "soon");
+
+        final KeyStore ks = KeyStore.getInstance("PEMCFG");
+        final IOException e = assertThrows(IOException.class, () -> ks.load(toStream(p), null));
+        assertTrue(e.getMessage().contains("reload.period"));
+
+    }
+
+    @Test
+    public void testReloadUnchangedSources(@TempDir final Path dir) throws Exception {
+
+        final Path key = dir.resolve("tls.key");
+        final Path cert = dir.resolve("tls.crt");
+        Files.copy(Paths.get("src/test/resources/tls.key"), key);
+        Files.copy(Paths.get("src/test/resources/test1.crt"), cert);
+
+        final Properties p = new Properties();
+        p.setProperty("alias", "keycert");
+        p.setProperty("source.key", key.toString());
+        p.setProperty("source.cert", cert.toString());
+
+        final KeyStore ks = KeyStore.getInstance("PEMCFG");
+        ks.load(toStream(p), null);
+
+        final Key key1 = ks.getKey("keycert", null);
+        final Certificate cert1 = ks.getCertificate("keycert");
+
+        // touch the key, but keep the content
+
+        Files.setLastModifiedTime(key, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+
+        // replace the certificate
+
+        Files.copy(Paths.get("src/test/resources/test2.crt"), cert, StandardCopyOption.REPLACE_EXISTING);
+
+        ks.load(toStream(p), null);
+
+        assertSame(key1, ks.getKey("keycert", null));
+        assertNotSame(cert1, ks.getCertificate("keycert"));
+        assertEquals("CN=Test 2", ((X509Certificate) ks.getCertificate("keycert")).getSubjectX500Principal().getName());
+
+    }
+
+    @Test
+    public void testSnapshot(@TempDir final Path dir) throws Exception {
+
+        final Properties p = new Properties();
+        p.setProperty("alias", "keycert");
+        p.setProperty("source.key", "src/test/resources/tls.key");
+        p.setProperty("source.cert", "src/test/resources/tls.crt");
+        p.setProperty("snapshot", dir.resolve("tls.snapshot").toString());
+
+        final KeyStore expected = KeyStore.getInstance("PEMCFG");
+        expected.load(toStream(p), null);
+
+        assertTrue(Files.exists(dir.resolve("tls.snapshot")));
+
+        final KeyStore actual = KeyStore.getInstance("PEMCFG");
+        actual.load(toStream(p), null);
+
+        assertEquals(expected.getKey("keycert", null), actual.getKey("keycert", null));
+        assertArrayEquals(expected.getCertificateChain("keycert"), actual.getCertificateChain("keycert"));
+
+    }
+
+    /**
+     * Test that loading the sources concurrently gives the same result as loading them sequentially.
+     */
+    @Test
+    public void testParallelSameAsSequential() throws Exception {
+
+        final Properties p = new Properties();
+        p.setProperty("alias", "keycert");
+        p.setProperty("source.key1", "src/test/resources/tls.key");
+        p.setProperty("source.cert1", "src/test/resources/tls.crt");
+        p.setProperty("source.key2", "src/test/resources/privkey1.pem");
+        p.setProperty("source.cert2", "src/test/resources/fullchain1.pem");
+        p.setProperty("source.cert3", "src/test/resources/test1.crt");
+        p.setProperty("source.cert4", "src/test/resources/test2.crt");
+        p.setProperty("source.key3", "src/test/resources/ec-private-key.pem");
+        p.setProperty("source.cert5", "classpath:ca.crt");
+
+        p.setProperty("threads", "1");
+        final KeyStore expected = KeyStore.getInstance("PEMCFG");
+        expected.load(toStream(p), null);
+
+        for (final String threads : new String[] { "4", null }) {
+            if (threads != null) {
+                p.setProperty("threads", threads);
+            } else {
+                p.remove("threads");
+            }
+
+            final KeyStore actual = KeyStore.getInstance("PEMCFG");
+            actual.load(toStream(p), null);
+
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected.getKey("keycert", null), actual.getKey("keycert", null));
+            assertArrayEquals(expected.getCertificateChain("keycert"), actual.getCertificateChain("keycert"));
+        }
+
+    }
+
+    /**
+     * Test that a failing source fails loading, when loading concurrently.
+     */
+    @Test
+    public void testParallelFailure(@TempDir final Path dir) throws Exception {
+
+        final Properties p = new Properties();
+        p.setProperty("source.key", "src/test/resources/tls.key");
+        p.setProperty("source.cert", "src/test/resources/tls.crt");
+        p.setProperty("source.missing", dir.resolve("missing.crt").toString());
+
+        final KeyStore ks = KeyStore.getInstance("PEMCFG");
+        assertThrows(IOException.class, () -> ks.load(toStream(p), null));
+
+    }
+
+    /**
+     * Test that sources are merged in the order of their keys, so the key of the last source wins.
+     */
+    @Test
+    public void testSourceOrder() throws Exception {
+
+        final Properties single = new Properties();
+        single.setProperty("source.key", "src/test/resources/ec-private-key.pem");
+        final KeyStore expected = KeyStore.getInstance("PEMCFG");
+        expected.load(toStream(single), null);
+
+        final String[][] names = { { "a", "b" }, { "key1", "key2" }, { "key10", "key9" }, { "y", "z" },
+                { "first", "second" } };
+
+        for (final String[] name : names) {
+            final Properties p = new Properties();
+            p.setProperty("source." + name[1], "src/test/resources/ec-private-key.pem");
+            p.setProperty("source." + name[0], "src/test/resources/tls.key");
+            p.setProperty("source.cert", "src/test/resources/tls.crt");
+
+            final KeyStore ks = KeyStore.getInstance("PEMCFG");
+            ks.load(toStream(p), null);
+
+            assertEquals(expected.getKey("pem", null), ks.getKey("pem", null), name[1]);
+        }
+
+    }
+
+    /**
+     * Test that an invalid number of threads fails loading, naming the property.
+     */
+    @Test
+    public void testInvalidThreads() throws Exception {
+
+        final Properties p = new Properties();
+        p.setProperty("source.key", "src/test/resources/tls.key");
+        p.setProperty("source.cert", "src/test/resources/tls.crt");
+
+        for (final String threads : new String[] { "many", "0", "-1", "" }) {
+            p.setProperty("threads", threads);
+
+            final KeyStore ks = KeyStore.getInstance("PEMCFG");
+            final IOException e = assertThrows(IOException.class, () -> ks.load(toStream(p), null));
+            assertTrue(e.getMessage().contains("threads"), e.getMessage());
+        }
+
+    }
+
+    private static InputStream toStream(final Properties p) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        p.store(out, null);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
 }
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ *******************************************************************************/
+package de.dentrassi.crypto.pem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.security.Principal;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SNIHostName;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.security.auth.x500.X500Principal;
+
+import org.junit.jupiter.api.Test;
+
+public class PemKeyManagerTest {
+
+    private static KeyStore loadFrom(final String type, final String resourceName) throws Exception {
+        try (final InputStream input = PemKeyManagerTest.class.getResourceAsStream(resourceName)) {
+            final KeyStore ks = KeyStore.getInstance(type, new PemKeyStoreProvider());
+            ks.load(input, null);
+            return ks;
+        }
+    }
+
+    private static X509ExtendedKeyManager keyManager(final KeyStore ks) throws Exception {
+        final KeyManagerFactory kmf = KeyManagerFactory.getInstance("PEM", new PemKeyStoreProvider());
+        kmf.init(ks, null);
+        return (X509ExtendedKeyManager) kmf.getKeyManagers()[0];
+    }
+
+    @Test
+    public void testChooseByKeyType() throws Exception {
+
+        final X509ExtendedKeyManager km = keyManager(loadFrom("PEMCFG", "/tls.properties"));
+
+        assertThat(km.chooseServerAlias("RSA", null, null)).isEqualTo("keycert");
+        assertThat(km.chooseEngineServerAlias("RSA", null, null)).isEqualTo("keycert");
+        assertThat(km.chooseServerAlias("RSA_RSA", null, null)).isEqualTo("keycert");
+        assertThat(km.chooseServerAlias("RSA_EC", null, null)).isNull();
+        assertThat(km.chooseServerAlias("EC", null, null)).isNull();
+        assertThat(km.chooseClientAlias(new String[] { "EC", "RSA" }, null, null)).isEqualTo("keycert");
+
+        assertThat(km.getServerAliases("RSA", null)).containsExactly("keycert");
+        assertThat(km.getServerAliases("EC", null)).isNull();
+
+        assertThat(km.getPrivateKey("keycert")).isNotNull();
+        assertThat(km.getCertificateChain("keycert")).hasSize(3);
+        assertThat(km.getPrivateKey("unknown")).isNull();
+        assertThat(km.getCertificateChain("unknown")).isNull();
+
+    }
+
+    @Test
+    public void testChooseByIssuer() throws Exception {
+
+        final X509ExtendedKeyManager km = keyManager(loadFrom("PEMCFG", "/tls.properties"));
+
+        assertThat(km.chooseServerAlias("RSA", new Principal[] { new X500Principal("CN=CA") }, null))
+                .isEqualTo("keycert");
+        assertThat(km.chooseServerAlias("RSA", new Principal[] { new X500Principal("CN=Intermediate") }, null))
+                .isEqualTo("keycert");
+        assertThat(km.chooseServerAlias("RSA", new Principal[] { new X500Principal("CN=Other") }, null))
+                .isNull();
+        assertThat(km.getClientAliases("RSA", new Principal[] { new X500Principal("CN=Other"), new X500Principal("CN=CA") }))
+                .containsExactly("keycert");
+
+    }
+
+    @Test
+    public void testModification() throws Exception {
+
+        final KeyStore source = loadFrom("PEMCFG", "/tls.properties");
+
+        final KeyStore ks = KeyStore.getInstance("PEM.MOD", new PemKeyStoreProvider());
+        ks.load(null, null);
+
+        final X509ExtendedKeyManager km = keyManager(ks);
+        assertThat(km.chooseServerAlias("RSA", null, null)).isNull();
+
+        // the key manager must pick up the new entry
+
+        ks.setKeyEntry("tenant1", source.getKey("keycert", null), null, source.getCertificateChain("keycert"));
+        assertThat(km.chooseServerAlias("RSA", null, null)).isEqualTo("tenant1");
+
+        ks.deleteEntry("tenant1");
+        assertThat(km.chooseServerAlias("RSA", null, null)).isNull();
+
+    }
+
+    @Test
+    public void testVersionPerKeyStore() throws Exception {
+
+        final Certificate cert = loadFrom("PEM", "/test1.crt").getCertificate("pem");
+
+        final KeyStore ks1 = KeyStore.getInstance("PEM.MOD", new PemKeyStoreProvider());
+        ks1.load(null, null);
+        final KeyStore ks2 = KeyStore.getInstance("PEM.MOD", new PemKeyStoreProvider());
+        ks2.load(null, null);
+
+        final KeyStoreVersion version = new KeyStoreVersion(ks1);
+        final long initial = version.get();
+
+        // modifying another key store must not change the version
+
+        ks2.setCertificateEntry("cert", cert);
+        assertThat(version.get()).isEqualTo(initial);
+
+        ks1.setCertificateEntry("cert", cert);
+        assertThat(version.get()).isNotEqualTo(initial);
+
+    }
+
+    @Test
+    public void testModificationOtherKeyStore() throws Exception {
+
+        final KeyStore source = loadFrom("PEMCFG", "/tls.properties");
+
+        final KeyStore ks = KeyStore.getInstance("PKCS12");
+        ks.load(null, null);
+
+        final X509ExtendedKeyManager km = keyManager(ks);
+        assertThat(km.chooseServerAlias("RSA", null, null)).isNull();
+
+        // other key stores are checked periodically
+
+        ks.setKeyEntry("tenant1", source.getKey("keycert", null), new char[0], source.getCertificateChain("keycert"));
+
+        final long timeout = System.currentTimeMillis() + 5_000;
+        while (km.chooseServerAlias("RSA", null, null) == null) {
+            assertThat(System.currentTimeMillis()).isLessThan(timeout);
+            Thread.sleep(50);
+        }
+        assertThat(km.chooseServerAlias("RSA", null, null)).isEqualTo("tenant1");
+
+    }
+
+    private static KeyStore loadHostnames() throws Exception {
+        final KeyStore ks = KeyStore.getInstance("PEM.MOD", new PemKeyStoreProvider());
+        ks.load(null, null);
+
+        for (final String name : new String[] { "cn", "exact", "wildcard" }) {
+            final KeyStore source = loadFrom("PEM", "/sni-" + name + ".pem");
+            ks.setKeyEntry(name, source.getKey("pem", null), null, source.getCertificateChain("pem"));
+        }
+
+        return ks;
+    }
+
+    @Test
+    public void testChooseByHostname() throws Exception {
+
+        final PemKeyManager km = (PemKeyManager) keyManager(loadHostnames());
+
+        assertThat(km.chooseServerAlias("EC", null, "www.example.com")).isEqualTo("exact");
+        assertThat(km.chooseServerAlias("EC", null, "WWW.Example.COM.")).isEqualTo("exact");
+        assertThat(km.chooseServerAlias("EC", null, "a.example.com")).isEqualTo("wildcard");
+        assertThat(km.chooseServerAlias("EC", null, "example.com")).isEqualTo("wildcard");
+        assertThat(km.chooseServerAlias("EC", null, "cn.example.org")).isEqualTo("cn");
+
+        // the wildcard only matches a single label, fall back to the first alias
+
+        assertThat(km.chooseServerAlias("EC", null, "a.b.example.com")).isEqualTo("cn");
+        assertThat(km.chooseServerAlias("EC", null, (String) null)).isEqualTo("cn");
+
+        // the host name must not override the key type and issuers
+
+        assertThat(km.chooseServerAlias("RSA", null, "www.example.com")).isNull();
+        assertThat(km.chooseServerAlias("EC", new Principal[] { new X500Principal("CN=Wildcard") },
+                "www.example.com")).isEqualTo("wildcard");
+
+    }
+
+    @Test
+    public void testHandshakeWithHostname() throws Exception {
+
+        final SSLContext server = SSLContext.getInstance("TLS");
+        server.init(new KeyManager[] { keyManager(loadHostnames()) }, null, null);
+
+        final SSLEngine serverEngine = server.createSSLEngine();
+        serverEngine.setUseClientMode(false);
+
+        final TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        tmf.init(loadFrom("PEM", "/sni-exact.pem"));
+
+        final SSLContext client = SSLContext.getInstance("TLS");
+        client.init(null, tmf.getTrustManagers(), null);
+
+        final SSLEngine clientEngine = client.createSSLEngine("www.example.com", 443);
+        clientEngine.setUseClientMode(true);
+        final SSLParameters parameters = clientEngine.getSSLParameters();
+        parameters.setServerNames(Collections.singletonList(new SNIHostName("www.example.com")));
+        clientEngine.setSSLParameters(parameters);
+
+        handshake(clientEngine, serverEngine);
+
+        final Certificate[] peer = clientEngine.getSession().getPeerCertificates();
+        assertThat(((X509Certificate) peer[0]).getSubjectX500Principal()).isEqualTo(new X500Principal("CN=Exact"));
+
+    }
+
+    /**
+     * Run a handshake between two engines in memory.
+     */
+    static void handshake(final SSLEngine client, final SSLEngine server) throws Exception {
+        final int size = Math.max(client.getSession().getPacketBufferSize(), server.getSession().getPacketBufferSize());
+        final ByteBuffer empty = ByteBuffer.allocate(0);
+        final ByteBuffer sink = ByteBuffer.allocate(client.getSession().getApplicationBufferSize() + size);
+        final ByteBuffer toServer = ByteBuffer.allocate(size);
+        final ByteBuffer toClient = ByteBuffer.allocate(size);
+
+        client.beginHandshake();
+        server.beginHandshake();
+
+        for (int i = 0; i < 1000; i++) {
+            if (isDone(client) && isDone(server)) {
+                return;
+            }
+
+            client.wrap(empty, toServer);
+            server.wrap(empty, toClient);
+            runTasks(client);
+            runTasks(server);
+
+            toServer.flip();
+            toClient.flip();
+            server.unwrap(toServer, sink);
+            client.unwrap(toClient, sink);
+            runTasks(client);
+            runTasks(server);
+            toServer.compact();
+            toClient.compact();
+            sink.clear();
+        }
+
+        throw new IllegalStateException("Handshake did not complete");
+    }
+
+    private static boolean isDone(final SSLEngine engine) {
+        final HandshakeStatus status = engine.getHandshakeStatus();
+        return status == HandshakeStatus.FINISHED || status == HandshakeStatus.NOT_HANDSHAKING;
+    }
+
+    private static void runTasks(final SSLEngine engine) {
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null) {
+            task.run();
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ *******************************************************************************/
+package de.dentrassi.crypto.pem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PemKeyStoreLoaderTest {
+
+    private static final Path BUNDLE = Paths.get("src/test/resources/fullchain1.pem");
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+
+        final List<Integer> progress = new CopyOnWriteArrayList<>();
+
+        final KeyStore ks = PemKeyStoreLoader.loadAsync("PEMCA",
+                new PemLoadParameter(BUNDLE).withProgressListener((objects, sources) -> progress.add(objects)),
+                this.executor).get(10, TimeUnit.SECONDS);
+
+        final KeyStore expected = KeyStore.getInstance("PEMCA", new PemKeyStoreProvider());
+        expected.load(new PemLoadParameter(BUNDLE));
+
+        assertThat(Collections.list(ks.aliases())).containsExactlyInAnyOrderElementsOf(Collections.list(expected.aliases()));
+        assertThat(progress).containsExactly(1, 2, 3);
+
+    }
+
+    @Test
+    public void testConfiguration() throws Exception {
+
+        final List<Integer> progress = new CopyOnWriteArrayList<>();
+
+        final KeyStore ks = PemKeyStoreLoader.loadAsync("PEMCFG",
+                new PemLoadParameter(Paths.get("src/test/resources/tls.properties"))
+                        .withProgressListener((objects, sources) -> progress.add(sources)),
+                this.executor).get(10, TimeUnit.SECONDS);
+
+        assertThat(ks.isKeyEntry("keycert")).isTrue();
+        assertThat(progress).contains(1, 2);
+
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final List<Integer> progress = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<KeyStore> future = PemKeyStoreLoader.loadAsync("PEMCA",
+                new PemLoadParameter(BUNDLE).withProgressListener((objects, sources) -> {
+                    progress.add(objects);
+                    started.countDown();
+                    try {
+                        cancelled.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }), this.executor);
+
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(future.cancel(false)).isTrue();
+        cancelled.countDown();
+
+        // wait for the loader to finish
+
+        this.executor.shutdown();
+        assertThat(this.executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(future.isCancelled()).isTrue();
+        assertThat(progress).containsExactly(1);
+
+    }
+
+    /**
+     * Test that loading lazily checks for cancellation after every PEM object, not only at the end.
+     */
+    @Test
+    public void testCancelLazy() throws Exception {
+
+        for (final String type : new String[] { "PEM", "PEMCA" }) {
+            final AtomicInteger checks = new AtomicInteger();
+            final PemLoadParameter parameter = new PemLoadParameter(BUNDLE).withLazyDecoding(true)
+                    .withCancellation(() -> checks.incrementAndGet() > 1);
+
+            final KeyStore ks = KeyStore.getInstance(type, new PemKeyStoreProvider());
+            assertThatThrownBy(() -> ks.load(parameter)).isInstanceOf(CancellationException.class);
+            assertThat(checks.get()).isEqualTo(2);
+        }
+
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+
+        final CompletableFuture<KeyStore> future = PemKeyStoreLoader.loadAsync("PEMCA",
+                new PemLoadParameter(Paths.get("src/test/resources/does-not-exist.pem")), this.executor);
+
+        assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IOException.class);
+
+    }
+
+    @Test
+    public void testRejected() throws Exception {
+
+        this.executor.shutdown();
+
+        final CompletableFuture<KeyStore> future = PemKeyStoreLoader.loadAsync("PEMCA", new PemLoadParameter(BUNDLE),
+                this.executor);
+
+        assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+
+    }
+
+}
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ *******************************************************************************/
+package de.dentrassi.crypto.pem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.KeyStore;
+import java.security.ProviderException;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class PemLoadParameterTest {
+
+    private static KeyStore loadFromStream(final String type, final Path path) throws Exception {
+        final KeyStore ks = KeyStore.getInstance(type, new PemKeyStoreProvider());
+        try (InputStream stream = Files.newInputStream(path)) {
+            ks.load(stream, null);
+        }
+        return ks;
+    }
+
+    private static KeyStore loadFromPath(final String type, final Path path) throws Exception {
+        final KeyStore ks = KeyStore.getInstance(type, new PemKeyStoreProvider());
+        ks.load(new PemLoadParameter(path));
+        return ks;
+    }
+
+    /**
+     * Test that loading from a path gives the same result as loading from a stream.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "PEM, src/test/resources/tls.crt",
+            "PEM, src/test/resources/privkey1.pem",
+            "PEMCA, src/test/resources/tls.crt",
+            "PEMCA.MOD, src/test/resources/fullchain1.pem",
+            "PEMCFG, src/test/resources/tls.properties",
+    })
+    public void testSameAsStream(final String type, final String file) throws Exception {
+
+        final Path path = Paths.get(file);
+
+        final KeyStore expected = loadFromStream(type, path);
+        final KeyStore actual = loadFromPath(type, path);
+
+        assertThat(Collections.list(actual.aliases()))
+                .containsExactlyInAnyOrderElementsOf(Collections.list(expected.aliases()));
+
+        for (final String alias : Collections.list(expected.aliases())) {
+            assertThat(actual.getCertificateChain(alias)).isEqualTo(expected.getCertificateChain(alias));
+            assertThat(actual.getKey(alias, null)).isEqualTo(expected.getKey(alias, null));
+        }
+
+    }
+
+    /**
+     * Test that decoding lazily gives the same result as decoding eagerly.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "PEM, src/test/resources/tls.crt",
+            "PEM, src/test/resources/ec-private-key.pem",
+            "PEMCA, src/test/resources/fullchain1.pem",
+    })
+    public void testLazySameAsEager(final String type, final String file) throws Exception {
+
+        final Path path = Paths.get(file);
+
+        final KeyStore expected = loadFromPath(type, path);
+
+        final KeyStore actual = KeyStore.getInstance(type, new PemKeyStoreProvider());
+        actual.load(new PemLoadParameter(path).withLazyDecoding(true));
+
+        assertThat(Collections.list(actual.aliases()))
+                .containsExactlyInAnyOrderElementsOf(Collections.list(expected.aliases()));
+
+        for (final String alias : Collections.list(expected.aliases())) {
+            assertThat(actual.isKeyEntry(alias)).isEqualTo(expected.isKeyEntry(alias));
+            assertThat(actual.getCertificateChain(alias)).isEqualTo(expected.getCertificateChain(alias));
+            assertThat(actual.getKey(alias, null)).isEqualTo(expected.getKey(alias, null));
+        }
+
+    }
+
+    /**
+     * Test that invalid content is only reported when accessing it, when decoding lazily.
+     */
+    @Test
+    public void testLazyInvalidContent(@TempDir final Path dir) throws Exception {
+
+        final Path bundle = dir.resolve("bundle.pem");
+        Files.write(bundle, "-----BEGIN CERTIFICATE-----\nAAAA\n-----END CERTIFICATE-----\n".getBytes(StandardCharsets.US_ASCII));
+
+        final KeyStore ks = KeyStore.getInstance("PEMCA", new PemKeyStoreProvider());
+        ks.load(new PemLoadParameter(bundle).withLazyDecoding(true));
+
+        assertThat(ks.isCertificateEntry("pem-0")).isTrue();
+        assertThatThrownBy(() -> ks.getCertificate("pem-0")).isInstanceOf(ProviderException.class);
+
+    }
+
+    /**
+     * Test that loading from a snapshot gives the same result as parsing the file.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "PEM, src/test/resources/tls.crt",
+            "PEM, src/test/resources/privkey1.pem",
+            "PEM, src/test/resources/ec-private-key.pem",
+            "PEMCA, src/test/resources/fullchain1.pem",
+    })
+    public void testSnapshot(final String type, final String file, @TempDir final Path dir) throws Exception {
+
+        final Path path = dir.resolve("source.pem");
+        Files.copy(Paths.get(file), path);
+        final Path snapshot = dir.resolve("source.pem.snapshot");
+
+        final KeyStore expected = loadFromStream(type, path);
+
+        // first load creates the snapshot
+
+        final KeyStore first = KeyStore.getInstance(type, new PemKeyStoreProvider());
+        first.load(new PemLoadParameter(path).withSnapshot(snapshot));
+        assertThat(snapshot).exists();
+        final Object fileKey = Files.readAttributes(snapshot, BasicFileAttributes.class).fileKey();
+
+        // second load uses the snapshot
+
+        final KeyStore actual = KeyStore.getInstance(type, new PemKeyStoreProvider());
+        actual.load(new PemLoadParameter(path).withSnapshot(snapshot));
+        assertThat(Files.readAttributes(snapshot, BasicFileAttributes.class).fileKey()).isEqualTo(fileKey);
+
+        assertThat(Collections.list(actual.aliases()))
+                .containsExactlyInAnyOrderElementsOf(Collections.list(expected.aliases()));
+
+        for (final String alias : Collections.list(expected.aliases())) {
+            assertThat(actual.isKeyEntry(alias)).isEqualTo(expected.isKeyEntry(alias));
+            assertThat(actual.getCertificateChain(alias)).isEqualTo(expected.getCertificateChain(alias));
+            assertThat(actual.getKey(alias, null)).isEqualTo(expected.getKey(alias, null));
+        }
+
+    }
+
+    /**
+     * Test that a snapshot is ignored, when the file changed.
+     */
+    @Test
+    public void testStaleSnapshot(@TempDir final Path dir) throws Exception {
+
+        final Path path = dir.resolve("source.pem");
+        Files.copy(Paths.get("src/test/resources/test1.crt"), path);
+        final Path snapshot = dir.resolve("source.pem.snapshot");
+
+        final KeyStore first = KeyStore.getInstance("PEM", new PemKeyStoreProvider());
+        first.load(new PemLoadParameter(path).withSnapshot(snapshot));
+        assertThat(((X509Certificate) first.getCertificate("pem")).getSubjectX500Principal().getName())
+                .isEqualTo("CN=Test 1");
+
+        Files.copy(Paths.get("src/test/resources/test2.crt"), path, StandardCopyOption.REPLACE_EXISTING);
+
+        final KeyStore second = KeyStore.getInstance("PEM", new PemKeyStoreProvider());
+        second.load(new PemLoadParameter(path).withSnapshot(snapshot));
+        assertThat(((X509Certificate) second.getCertificate("pem")).getSubjectX500Principal().getName())
+                .isEqualTo("CN=Test 2");
+
+    }
+
+    /**
+     * Test that an invalid snapshot is ignored, and replaced.
+     */
+    @Test
+    public void testInvalidSnapshot(@TempDir final Path dir) throws Exception {
+
+        final Path path = Paths.get("src/test/resources/tls.crt");
+        final Path snapshot = dir.resolve("tls.crt.snapshot");
+        Files.write(snapshot, new byte[] { 'P', 'E', 'M', 'S', 0, 0 });
+
+        final KeyStore ks = KeyStore.getInstance("PEM", new PemKeyStoreProvider());
+        ks.load(new PemLoadParameter(path).withSnapshot(snapshot));
+
+        assertThat(ks.getCertificateChain("pem")).hasSize(3);
+        assertThat(Files.size(snapshot)).isGreaterThan(6);
+
+    }
+
+    /**
+     * Test that decoding in parallel gives the same, deterministic, aliases as decoding sequentially.
+     */
+    @Test
+    public void testParallelDecoding(@TempDir final Path dir) throws Exception {
+
+        final byte[] test1 = Files.readAllBytes(Paths.get("src/test/resources/test1.crt"));
+        final byte[] test2 = Files.readAllBytes(Paths.get("src/test/resources/test2.crt"));
+
+        final Path bundle = dir.resolve("bundle.pem");
+        try (OutputStream out = Files.newOutputStream(bundle)) {
+            for (int i = 0; i < 500; i++) {
+                out.write(i % 3 == 0 ? test2 : test1);
+            }
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final KeyStore expected = loadFromStream("PEMCA", bundle);
+
+            final KeyStore actual = KeyStore.getInstance("PEMCA", new PemKeyStoreProvider());
+            actual.load(new PemLoadParameter(bundle).withExecutor(executor));
+
+            assertThat(actual.size()).isEqualTo(expected.size());
+            for (final String alias : Collections.list(expected.aliases())) {
+                assertThat(actual.getCertificate(alias)).isEqualTo(expected.getCertificate(alias));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
+}
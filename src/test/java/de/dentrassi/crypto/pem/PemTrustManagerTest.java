@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ *******************************************************************************/
+package de.dentrassi.crypto.pem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+import org.junit.jupiter.api.Test;
+
+public class PemTrustManagerTest {
+
+    private static KeyStore loadFrom(final String type, final String resourceName) throws Exception {
+        try (final InputStream input = PemTrustManagerTest.class.getResourceAsStream(resourceName)) {
+            final KeyStore ks = KeyStore.getInstance(type, new PemKeyStoreProvider());
+            ks.load(input, null);
+            return ks;
+        }
+    }
+
+    private static X509Certificate[] chain(final String type, final String resourceName, final String alias)
+            throws Exception {
+        final Certificate[] chain = loadFrom(type, resourceName).getCertificateChain(alias);
+        return Arrays.copyOf(chain, chain.length, X509Certificate[].class);
+    }
+
+    private static PemTrustManager trustManager(final KeyStore ks) throws Exception {
+        final TrustManagerFactory tmf = TrustManagerFactory.getInstance("PEM", new PemKeyStoreProvider());
+        tmf.init(ks);
+        return (PemTrustManager) tmf.getTrustManagers()[0];
+    }
+
+    @Test
+    public void testCache() throws Exception {
+
+        final PemTrustManager tm = trustManager(loadFrom("PEMCA", "/ca.crt"));
+        final X509Certificate[] chain = chain("PEMCFG", "/tls.properties", "keycert");
+
+        assertThat(tm.getAcceptedIssuers()).hasSize(1);
+        assertThat(tm.getCachedResults()).isZero();
+
+        tm.checkServerTrusted(chain, "ECDHE_RSA");
+        assertThat(tm.getCachedResults()).isEqualTo(1);
+
+        tm.checkServerTrusted(chain, "ECDHE_RSA");
+        assertThat(tm.getCachedResults()).isEqualTo(1);
+
+        // different parameters are cached separately
+
+        tm.checkServerTrusted(chain, "DHE_RSA");
+        assertThat(tm.getCachedResults()).isEqualTo(2);
+
+        // failures must not be cached, the certificate is not a client certificate
+
+        assertThatThrownBy(() -> tm.checkClientTrusted(chain, "RSA")).isInstanceOf(CertificateException.class);
+
+        final X509Certificate[] untrusted = chain("PEM", "/sni-exact.pem", "pem");
+        assertThatThrownBy(() -> tm.checkServerTrusted(untrusted, "EC")).isInstanceOf(CertificateException.class);
+        assertThatThrownBy(() -> tm.checkServerTrusted(untrusted, "EC")).isInstanceOf(CertificateException.class);
+        assertThat(tm.getCachedResults()).isEqualTo(2);
+
+    }
+
+    @Test
+    public void testHandshake() throws Exception {
+
+        final KeyManagerFactory kmf = KeyManagerFactory.getInstance("PEM", new PemKeyStoreProvider());
+        kmf.init(loadFrom("PEMCFG", "/tls.properties"), null);
+
+        final SSLContext server = SSLContext.getInstance("TLS");
+        server.init(kmf.getKeyManagers(), null, null);
+
+        final PemTrustManager tm = trustManager(loadFrom("PEMCA", "/ca.crt"));
+        final SSLContext client = SSLContext.getInstance("TLS");
+        client.init(null, new TrustManager[] { tm }, null);
+
+        for (int i = 0; i < 3; i++) {
+            final SSLEngine serverEngine = server.createSSLEngine();
+            serverEngine.setUseClientMode(false);
+            // no peer host, which prevents resuming sessions
+            final SSLEngine clientEngine = client.createSSLEngine();
+            clientEngine.setUseClientMode(true);
+
+            PemKeyManagerTest.handshake(clientEngine, serverEngine);
+
+            // all handshakes must share the same result
+
+            assertThat(tm.getCachedResults()).isEqualTo(1);
+        }
+
+    }
+
+    @Test
+    public void testModification() throws Exception {
+
+        final KeyStore ks = KeyStore.getInstance("PEMCA.MOD", new PemKeyStoreProvider());
+        ks.load(null, null);
+        ks.setCertificateEntry("ca", loadFrom("PEMCA", "/ca.crt").getCertificate("pem-0"));
+
+        final PemTrustManager tm = trustManager(ks);
+        final X509Certificate[] chain = chain("PEMCFG", "/tls.properties", "keycert");
+
+        tm.checkServerTrusted(chain, "ECDHE_RSA");
+        assertThat(tm.getCachedResults()).isEqualTo(1);
+
+        // loading other key stores must not clear the cache
+
+        final Certificate other = loadFrom("PEM", "/sni-exact.pem").getCertificate("pem");
+        assertThat(tm.getCachedResults()).isEqualTo(1);
+
+        // replacing the trust anchor must clear the cache
+
+        ks.setCertificateEntry("other", other);
+        ks.deleteEntry("ca");
+        assertThat(tm.getCachedResults()).isZero();
+        assertThat(tm.getAcceptedIssuers()).containsExactly((X509Certificate) other);
+        assertThatThrownBy(() -> tm.checkServerTrusted(chain, "ECDHE_RSA")).isInstanceOf(CertificateException.class);
+
+    }
+
+    @Test
+    public void testModificationOtherKeyStore() throws Exception {
+
+        final KeyStore ks = KeyStore.getInstance("PEMCA.MOD", new PemKeyStoreProvider());
+        ks.load(null, null);
+        ks.setCertificateEntry("ca", loadFrom("PEMCA", "/ca.crt").getCertificate("pem-0"));
+
+        final PemTrustManager tm = trustManager(ks);
+        final X509ExtendedTrustManager delegate = tm.getDelegate();
+
+        // modifying another key store must not re-create the delegate
+
+        final KeyStore other = KeyStore.getInstance("PEMCA.MOD", new PemKeyStoreProvider());
+        other.load(null, null);
+        other.setCertificateEntry("other", loadFrom("PEM", "/sni-exact.pem").getCertificate("pem"));
+
+        assertThat(tm.getDelegate()).isSameAs(delegate);
+
+        ks.setCertificateEntry("other", loadFrom("PEM", "/sni-exact.pem").getCertificate("pem"));
+        assertThat(tm.getDelegate()).isNotSameAs(delegate);
+
+    }
+
+    @Test
+    public void testParameters() throws Exception {
+
+        final TrustManagerFactory tmf = TrustManagerFactory.getInstance("PEM", new PemKeyStoreProvider());
+        tmf.init(new PemTrustManagerParameters(loadFrom("PEMCA", "/ca.crt")).withMaximumSize(0));
+        final PemTrustManager tm = (PemTrustManager) tmf.getTrustManagers()[0];
+
+        tm.checkServerTrusted(chain("PEMCFG", "/tls.properties", "keycert"), "ECDHE_RSA");
+        assertThat(tm.getCachedResults()).isZero();
+
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+
+        final X509Certificate[] chain = chain("PEMCFG", "/tls.properties", "keycert");
+        final long now = System.currentTimeMillis();
+
+        final ValidationCache cache = new ValidationCache(2, Duration.ofMinutes(1).toMillis());
+        final ValidationCache.Key key1 = ValidationCache.key(chain, Collections.singletonList("1"));
+        final ValidationCache.Key key2 = ValidationCache.key(chain, Collections.singletonList("2"));
+        final ValidationCache.Key key3 = ValidationCache.key(chain, Collections.singletonList("3"));
+
+        cache.put(key1, chain, now);
+        cache.put(key2, chain, now);
+        assertThat(cache.isValid(key1, now)).isTrue();
+
+        // key2 is the least recently used one
+
+        cache.put(key3, chain, now);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.isValid(key1, now)).isTrue();
+        assertThat(cache.isValid(key2, now)).isFalse();
+        assertThat(cache.isValid(key3, now)).isTrue();
+
+        // results expire after their time to live
+
+        assertThat(cache.isValid(key1, now + Duration.ofMinutes(2).toMillis())).isFalse();
+
+        // results expire with the certificates
+
+        final ValidationCache unbounded = new ValidationCache(2, Long.MAX_VALUE);
+        unbounded.put(key1, chain, now);
+        assertThat(unbounded.isValid(key1, chain[0].getNotAfter().getTime())).isTrue();
+        assertThat(unbounded.isValid(key1, chain[0].getNotAfter().getTime() + 1)).isFalse();
+
+    }
+
+}
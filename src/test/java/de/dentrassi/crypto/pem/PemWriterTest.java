@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Red Hat Inc and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Jens Reimann - initial API and implementation
+ *******************************************************************************/
+package de.dentrassi.crypto.pem;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+public class PemWriterTest {
+
+    /**
+     * Test the encoding, for all variants of padding and line breaks.
+     */
+    @Test
+    public void testEncoding() throws Exception {
+
+        final Base64.Encoder encoder = Base64.getMimeEncoder(64, new byte[] { '\n' });
+
+        for (int length = 0; length < 200; length++) {
+            final byte[] content = new byte[length];
+            for (int i = 0; i < length; i++) {
+                content[i] = (byte) (i * 31 + length);
+            }
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new PemWriter(out).writeObject("TEST", content);
+
+            final String encoded = encoder.encodeToString(content);
+            final String expected = "-----BEGIN TEST-----\n"
+                    + encoded + (encoded.isEmpty() ? "" : "\n")
+                    + "-----END TEST-----\n";
+
+            assertEquals(expected, new String(out.toByteArray(), StandardCharsets.US_ASCII), "Length: " + length);
+        }
+
+    }
+
+}
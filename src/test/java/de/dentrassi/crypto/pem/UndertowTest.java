@@ -40,10 +40,17 @@ public class UndertowTest {
 
     @Test
     public void testTls() throws Exception {
+        testTls(KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm()));
+    }
 
-        final int port = 8080;
+    @Test
+    public void testTlsWithPemKeyManager() throws Exception {
+        testTls(KeyManagerFactory.getInstance("PEM", new PemKeyStoreProvider()));
+    }
+
+    private void testTls(final KeyManagerFactory kmf) throws Exception {
 
-        final KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        final int port = 8080;
 
         final KeyStore ks = KeyStore.getInstance("PEMCFG", new PemKeyStoreProvider());
         try (FileInputStream stream = new FileInputStream("src/test/resources/tls.properties")) {